@@ -0,0 +1,29 @@
+package com.example.demo.Repository;
+
+import com.example.demo.models.FeedVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FeedVersionRepository extends JpaRepository<FeedVersion, String> {
+    @Query("SELECT f.version FROM FeedVersion f WHERE f.category = :category")
+    Optional<Long> findVersion(@Param("category") String category);
+
+    // One row per category, so this stays a tiny scan
+    @Query("SELECT COALESCE(SUM(f.version), 0) FROM FeedVersion f")
+    Long sumVersions();
+
+    @Modifying
+    @Query(value = "INSERT INTO feed_versions (category, version) VALUES (:category, 0) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("category") String category);
+
+    @Modifying
+    @Query("UPDATE FeedVersion f SET f.version = f.version + 1 WHERE f.category = :category")
+    int increment(@Param("category") String category);
+}
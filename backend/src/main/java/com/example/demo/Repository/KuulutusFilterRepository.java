@@ -0,0 +1,12 @@
+package com.example.demo.Repository;
+
+import com.example.demo.models.Kuulutus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface KuulutusFilterRepository {
+    // Ids only, so the filter scan can be answered from the composite indexes on kuulutus
+    List<Long> findIds(Specification<Kuulutus> specification, Sort sort, int limit);
+}
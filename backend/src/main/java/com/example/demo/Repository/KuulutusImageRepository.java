@@ -2,8 +2,24 @@ package com.example.demo.Repository;
 
 import com.example.demo.models.KuulutusImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface KuulutusImageRepository extends JpaRepository<KuulutusImage, Integer> {
+    List<KuulutusImage> findByKuulutusId(Long kuulutusId);
+
+    // (kuulutus id, image url) pairs in upload order, without loading entities
+    @Query("SELECT i.kuulutus.id, i.imageUrl FROM KuulutusImage i WHERE i.kuulutus.id IN :kuulutusIds ORDER BY i.id")
+    List<Object[]> findImageUrlsByKuulutusIdIn(@Param("kuulutusIds") Collection<Long> kuulutusIds);
+
+    // One statement for the whole image set of a listing
+    @Modifying
+    @Query("DELETE FROM KuulutusImage i WHERE i.kuulutus.id = :kuulutusId")
+    int deleteByKuulutusId(@Param("kuulutusId") Long kuulutusId);
 } 
\ No newline at end of file
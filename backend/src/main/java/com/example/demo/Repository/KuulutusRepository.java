@@ -1,14 +1,85 @@
 package com.example.demo.Repository;
 
 import com.example.demo.models.Kuulutus;
+import com.example.demo.models.KuulutusExportRow;
+import com.example.demo.models.KuulutusSummary;
+import com.example.demo.models.ListingVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface KuulutusRepository extends JpaRepository<Kuulutus, Long> {
+public interface KuulutusRepository extends JpaRepository<Kuulutus, Long>, KuulutusFilterRepository {
+    // Summary columns plus the first uploaded image and its thumbnail (images uploaded before
+    // thumbnailing existed fall back to the original); never touches description or the seller entity
+    String FIRST_IMAGE = "(SELECT MIN(i2.id) FROM KuulutusImage i2 WHERE i2.kuulutus = k)";
+    String SUMMARY_SELECT = "SELECT new com.example.demo.models.KuulutusSummary("
+            + "k.id, k.title, k.price, k.category, "
+            + "(SELECT i.imageUrl FROM KuulutusImage i WHERE i.id = " + FIRST_IMAGE + "), "
+            + "(SELECT COALESCE(i.thumbnailUrl, i.imageUrl) FROM KuulutusImage i WHERE i.id = " + FIRST_IMAGE + "), "
+            + "u.nimi, k.likeCount) "
+            + "FROM Kuulutus k LEFT JOIN k.user u ";
+
+    // List queries join the seller in the same select; imageUrls are batch-fetched (see Kuulutus)
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Kuulutus> findAll();
+
+    @EntityGraph(attributePaths = "user")
     List<Kuulutus> findByUserEmail(String userEmail);
+
+    @EntityGraph(attributePaths = "user")
     List<Kuulutus> findByUserId(Integer userId);
+
+    @EntityGraph(attributePaths = "user")
     List<Kuulutus> findLikedKuulutusedByUserId(Integer userId);
+
+    @EntityGraph(attributePaths = "user")
     List<Kuulutus> findByCategory(String category);
+
+    // Everything the detail view serializes, in one select
+    @Query("SELECT DISTINCT k FROM Kuulutus k LEFT JOIN FETCH k.user LEFT JOIN FETCH k.imageUrls WHERE k.id = :id")
+    Optional<Kuulutus> findDetailsById(@Param("id") Long id);
+
+    // Must be consumed inside a read-only transaction and closed; the fetch size makes the
+    // PostgreSQL driver use a server-side cursor instead of buffering the whole result
+    @QueryHints({
+        @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT new com.example.demo.models.KuulutusExportRow("
+         + "k.id, k.title, k.price, k.category, k.description, u.id, u.nimi, k.likeCount, k.updatedAt) "
+         + "FROM Kuulutus k LEFT JOIN k.user u WHERE k.updatedAt >= :since ORDER BY k.updatedAt, k.id")
+    Stream<KuulutusExportRow> streamExportRows(@Param("since") Instant since);
+
+    @Query("SELECT k.likeCount FROM Kuulutus k WHERE k.id = :id")
+    Optional<Long> findLikeCountById(@Param("id") Long id);
+
+    // Primary key lookup for conditional GETs; no joins, no entity
+    @Query("SELECT new com.example.demo.models.ListingVersion(k.version, k.likeCount) FROM Kuulutus k WHERE k.id = :id")
+    Optional<ListingVersion> findVersionById(@Param("id") Long id);
+
+    // Unordered; callers that rank ids themselves restore their own order
+    @Query(SUMMARY_SELECT + "WHERE k.id IN :ids")
+    List<KuulutusSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset pages, newest first. Pass Long.MAX_VALUE as afterId for the first page.
+    @Query(SUMMARY_SELECT + "WHERE k.id < :afterId ORDER BY k.id DESC")
+    List<KuulutusSummary> findSummaryPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE k.category = :category AND k.id < :afterId ORDER BY k.id DESC")
+    List<KuulutusSummary> findSummaryPageByCategory(@Param("category") String category,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
 } 
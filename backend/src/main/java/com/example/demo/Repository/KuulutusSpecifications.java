@@ -0,0 +1,66 @@
+package com.example.demo.Repository;
+
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.ListingSort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Building blocks for listing filters. Each returns null when its argument is absent,
+ * which Specification.where/and treat as "no condition".
+ */
+public final class KuulutusSpecifications {
+
+    private KuulutusSpecifications() {}
+
+    public static Specification<Kuulutus> inCategories(Collection<String> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("category").in(categories);
+    }
+
+    public static Specification<Kuulutus> priceAtLeast(BigDecimal minPrice) {
+        if (minPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Kuulutus> priceAtMost(BigDecimal maxPrice) {
+        if (maxPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Kuulutus> soldBy(Integer userId) {
+        if (userId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    /**
+     * Rows strictly after the given position in the given ordering. A null afterId means the first page.
+     */
+    public static Specification<Kuulutus> after(ListingSort sort, BigDecimal afterPrice, Long afterId) {
+        if (afterId == null) {
+            return null;
+        }
+        switch (sort) {
+            case PRICE_ASC:
+                return (root, query, cb) -> cb.or(
+                    cb.greaterThan(root.get("price"), afterPrice),
+                    cb.and(cb.equal(root.get("price"), afterPrice), cb.greaterThan(root.get("id"), afterId)));
+            case PRICE_DESC:
+                return (root, query, cb) -> cb.or(
+                    cb.lessThan(root.get("price"), afterPrice),
+                    cb.and(cb.equal(root.get("price"), afterPrice), cb.lessThan(root.get("id"), afterId)));
+            default:
+                return (root, query, cb) -> cb.lessThan(root.get("id"), afterId);
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.example.demo.Repository;
 
 import com.example.demo.models.Kuulutus;
 import com.example.demo.models.Liked;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,8 +18,38 @@ public interface LikedRepository extends JpaRepository<Liked, Long> {
     List<Liked> findByUserId(Long userId);
     
     // New method to fetch Kuulutus based on liked entries
-    @Query("SELECT k FROM Kuulutus k JOIN Liked l ON k.id = l.kuulutusId WHERE l.userId = :userId")
+    @Query("SELECT k FROM Kuulutus k LEFT JOIN FETCH k.user JOIN Liked l ON k.id = l.kuulutusId WHERE l.userId = :userId")
     List<Kuulutus> findKuulutusByUserId(@Param("userId") Long userId);
 
     Liked findByUserIdAndKuulutusId(Long userId, Long kuulutusId);
-} 
\ No newline at end of file
+
+    // Keyset pages over idx_liked_user_liked_at, most recently liked first
+    @Query("SELECT l FROM Liked l WHERE l.userId = :userId ORDER BY l.likedAt DESC, l.id DESC")
+    List<Liked> findFirstLikedPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT l FROM Liked l WHERE l.userId = :userId "
+         + "AND (l.likedAt < :afterLikedAt OR (l.likedAt = :afterLikedAt AND l.id < :afterId)) "
+         + "ORDER BY l.likedAt DESC, l.id DESC")
+    List<Liked> findLikedPageAfter(@Param("userId") Long userId,
+                                   @Param("afterLikedAt") Instant afterLikedAt,
+                                   @Param("afterId") Long afterId,
+                                   Pageable pageable);
+
+    // Both read only uk_liked_user_kuulutus (user_id, kuulutus_id), so no table rows are visited
+    @Query("SELECT l.kuulutusId FROM Liked l WHERE l.userId = :userId AND l.kuulutusId IN :kuulutusIds")
+    List<Long> findLikedKuulutusIds(@Param("userId") Long userId,
+                                    @Param("kuulutusIds") Collection<Long> kuulutusIds);
+
+    @Query("SELECT l.kuulutusId FROM Liked l WHERE l.userId = :userId")
+    List<Long> findAllKuulutusIdsByUserId(@Param("userId") Long userId);
+
+    // Returns 0 when the like already exists; relies on uk_liked_user_kuulutus
+    @Modifying
+    @Query(value = "INSERT INTO liked (user_id, kuulutus_id) VALUES (:userId, :kuulutusId) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("kuulutusId") Long kuulutusId);
+
+    @Modifying
+    @Query("DELETE FROM Liked l WHERE l.userId = :userId AND l.kuulutusId = :kuulutusId")
+    int deleteByKey(@Param("userId") Long userId, @Param("kuulutusId") Long kuulutusId);
+}
@@ -0,0 +1,24 @@
+package com.example.demo.Repository;
+
+import com.example.demo.models.StorageDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StorageDeletionRepository extends JpaRepository<StorageDeletion, Long> {
+    // FOR UPDATE SKIP LOCKED (-2), so several nodes can drain the queue without blocking each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM StorageDeletion d WHERE d.nextAttemptAt <= :now ORDER BY d.nextAttemptAt, d.id")
+    List<StorageDeletion> findDue(@Param("now") Instant now, Pageable pageable);
+}
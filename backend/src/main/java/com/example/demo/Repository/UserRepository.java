@@ -1,11 +1,50 @@
 package com.example.demo.Repository;
 
 import com.example.demo.models.User;
+import com.example.demo.models.UserSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     User findByEmail(String email);
     User findByNimi(String nimi);
+
+    // Which of the two unique fields are already taken, in one indexed lookup
+    @Query("SELECT CASE WHEN u.email = :email THEN 'email' ELSE 'nimi' END FROM users u "
+         + "WHERE u.email = :email OR u.nimi = :nimi")
+    List<String> findTakenFields(@Param("email") String email, @Param("nimi") String nimi);
+
+    // Keyset pages in id order. Pass 0 as afterId for the first page.
+    @Query("SELECT new com.example.demo.models.UserSummary(u.id, u.nimi) FROM users u "
+         + "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummaryPage(@Param("afterId") Integer afterId, Pageable pageable);
+
+    // Keyset pages in (lower(nimi), id) order over idx_users_nimi_order. The pattern must
+    // already be lower-cased, escaped with '!' and end in '%'.
+    @Query("SELECT new com.example.demo.models.UserSummary(u.id, u.nimi) FROM users u "
+         + "WHERE LOWER(u.nimi) LIKE :pattern ESCAPE '!' ORDER BY LOWER(u.nimi), u.id")
+    List<UserSummary> findFirstSummaryPageByNimiLike(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("SELECT new com.example.demo.models.UserSummary(u.id, u.nimi) FROM users u "
+         + "WHERE LOWER(u.nimi) LIKE :pattern ESCAPE '!' "
+         + "AND (LOWER(u.nimi) > LOWER(:afterNimi) OR (LOWER(u.nimi) = LOWER(:afterNimi) AND u.id > :afterId)) "
+         + "ORDER BY LOWER(u.nimi), u.id")
+    List<UserSummary> findSummaryPageByNimiLikeAfter(@Param("pattern") String pattern,
+                                                     @Param("afterNimi") String afterNimi,
+                                                     @Param("afterId") Integer afterId,
+                                                     Pageable pageable);
+
+    // Compare-and-set, so a rehash never overwrites a password changed in the meantime
+    @Transactional
+    @Modifying
+    @Query("UPDATE users u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePassword(@Param("id") Integer id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
\ No newline at end of file
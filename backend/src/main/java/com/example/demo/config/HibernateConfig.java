@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    @Value("${hibernate.batch-fetch-size:50}")
+    private int batchFetchSize;
+
+    @Value("${hibernate.jdbc-batch-size:50}")
+    private int jdbcBatchSize;
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer() {
+        return properties -> {
+            // Lazy associations of a loaded page are fetched with one IN query instead of one per row
+            properties.put("hibernate.default_batch_fetch_size", batchFetchSize);
+            // A listing and its images go to the database as one batch per table; on PostgreSQL,
+            // reWriteBatchedInserts=true in the JDBC URL also turns each batch into one multi-row INSERT
+            properties.put("hibernate.jdbc.batch_size", jdbcBatchSize);
+            properties.put("hibernate.order_inserts", true);
+            properties.put("hibernate.order_updates", true);
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Applies the PostgreSQL-only schema pieces Hibernate cannot express (generated columns,
+ * GIN and operator-class indexes). Runs after Hibernate has updated the schema; every
+ * script in db/postgres must be idempotent, since all of them run on each start. Data fixes
+ * that must not repeat claim a schema_migrations row first (see 003-like-count.sql).
+ * The scripts run while the context is being built, so the web server only starts
+ * accepting requests once they are done (005-sequence-ids.sql must precede any insert).
+ */
+@Component
+public class PostgresSchemaInitializer {
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Injected so Hibernate's schema update has finished before the scripts run
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void init() throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+        }
+
+        Resource[] scripts = new PathMatchingResourcePatternResolver().getResources("classpath:db/postgres/*.sql");
+        Arrays.sort(scripts, Comparator.comparing(Resource::getFilename));
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(scripts);
+        populator.execute(dataSource);
+    }
+}
@@ -1,33 +1,66 @@
 package com.example.demo.config;
 
+import com.example.demo.services.JwtService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Autowired
+    private JwtService jwtService;
+
+    // New hashes use this encoder; stored hashes of any supported kind keep working
+    @Value("${security.password.encoder:bcrypt}")
+    private String passwordEncoderId;
+
+    @Value("${security.password.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password.pbkdf2.iterations:310000}")
+    private int pbkdf2Iterations;
+
+    @Value("${security.password.argon2.memory-kb:19456}")
+    private int argon2MemoryKb;
+
+    @Value("${security.password.argon2.iterations:2}")
+    private int argon2Iterations;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .cors(cors -> cors.disable())
             .csrf(csrf -> csrf.disable())
+            // Every request authenticates with its own bearer token; no HTTP session is kept
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new JwtAuthenticationFilter(jwtService), UsernamePasswordAuthenticationFilter.class)
             .authorizeRequests(authz -> authz
                 .antMatchers("/api/auth/**").permitAll()
                 .antMatchers("/api/users/**").permitAll()
                 .antMatchers("/api/kuulutused/**").permitAll()
                 .antMatchers("/api/listings/**").permitAll()
                 .antMatchers("/api/liked/**").permitAll()
+                .antMatchers("/api/files/**").permitAll()
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form.disable())
@@ -60,8 +93,26 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * Hashes are stored with an {id} prefix. Hashes from before the prefix existed are plain
+     * bcrypt; they still match, and upgradeEncoding reports them (and any hash made with
+     * weaker parameters than configured) so sign-in can rehash them.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        Pbkdf2PasswordEncoder pbkdf2 = new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations, 256);
+        pbkdf2.setAlgorithm(Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+        encoders.put("pbkdf2", pbkdf2);
+        encoders.put("argon2", new Argon2PasswordEncoder(16, 32, 1, argon2MemoryKb, argon2Iterations));
+        if (!encoders.containsKey(passwordEncoderId)) {
+            throw new IllegalStateException("Unknown security.password.encoder: " + passwordEncoderId);
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordEncoderId, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 }
\ No newline at end of file
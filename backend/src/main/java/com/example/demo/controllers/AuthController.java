@@ -2,19 +2,20 @@ package com.example.demo.controllers;
 
 import com.example.demo.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import com.example.demo.models.User;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import javax.servlet.http.HttpServletRequest;
+import com.example.demo.services.JwtService;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -24,12 +25,11 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    @Autowired
+    private JwtService jwtService;
 
     @PostMapping("/signup")
-    public ResponseEntity<Map<String, Object>> signUp(@RequestBody Map<String, String> request) {
-        Map<String, Object> response = new HashMap<>();
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> signUp(@RequestBody Map<String, String> request) {
         try {
             String username = request.get("username");
             if (username == null) {
@@ -38,42 +38,38 @@ public class AuthController {
             String email = request.get("email");
             String password = request.get("password");
 
-            User user = userService.registerUser(username, email, password);
-            response.put("success", true);
-            response.put("message", "User registered successfully");
-            response.put("id", user.getId());
-            return ResponseEntity.ok(response);
+            return userService.registerUser(username, email, password)
+                .thenApply(user -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", "User registered successfully");
+                    response.put("id", user.getId());
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(this::failure);
         } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return CompletableFuture.completedFuture(failure(e));
         }
     }
 
     @PostMapping("/signin")
-    public ResponseEntity<Map<String, Object>> signIn(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
-        Map<String, Object> response = new HashMap<>();
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> signIn(@RequestBody Map<String, String> request) {
         try {
             String email = request.get("email");
             String password = request.get("password");
 
-            User user = userService.authenticateUser(email, password);
-            String token = generateToken(user);
-            response.put("success", true);
-            response.put("token", token);
-            response.put("message", "Sign in successful");
-            response.put("user", user);
-
-            String sessionId = httpRequest.getSession().getId();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.SET_COOKIE, "JSESSIONID=" + sessionId);
-
-            return ResponseEntity.ok().headers(headers).body(response);
+            return userService.authenticateUser(email, password)
+                .thenApply(user -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("token", jwtService.generateToken(user));
+                    response.put("message", "Sign in successful");
+                    response.put("user", user);
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(this::failure);
         } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return CompletableFuture.completedFuture(failure(e));
         }
     }
 
@@ -90,20 +86,18 @@ public class AuthController {
         }
     }
 
-    private String generateToken(User user) {
-        return Jwts.builder()
-                .setSubject(user.getEmail())
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
-                .compact();
+    // A full hashing queue means the server is saturated, not that the request was wrong
+    private ResponseEntity<Map<String, Object>> failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        if (cause instanceof RejectedExecutionException) {
+            response.put("message", "Server is busy, please try again");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+        }
+        response.put("message", cause.getMessage());
+        return ResponseEntity.badRequest().body(response);
     }
-
-    // private String extractSessionId(String setCookieHeader) {
-    //     String[] cookies = setCookieHeader.split(";");
-    //     for (String cookie : cookies) {
-    //         if (cookie.trim().startsWith("JSESSIONID=")) {
-    //             return cookie.split("=")[1];
-    //         }
-    //     }
-    //     return null;
-    // }
-}
\ No newline at end of file
+}
@@ -1,55 +1,95 @@
 package com.example.demo.controllers;
 
+import com.example.demo.models.CursorPage;
+import com.example.demo.models.FeedPage;
 import com.example.demo.models.Kuulutus;
-import com.example.demo.models.KuulutusImage;
+import com.example.demo.models.KuulutusSummary;
+import com.example.demo.models.ListingFilter;
+import com.example.demo.models.ListingImportResult;
+import com.example.demo.models.ListingVersion;
+import com.example.demo.models.StoredImage;
 import com.example.demo.models.User;
-import com.example.demo.models.Liked;
 import com.example.demo.models.LikeRequest;
 import com.example.demo.Repository.KuulutusRepository;
-import com.example.demo.Repository.UserRepository;
-import com.example.demo.Repository.KuulutusImageRepository;
 import com.example.demo.Repository.LikedRepository;
-import com.example.demo.services.SupabaseStorageService;
+import com.example.demo.services.ImageUploadService;
+import com.example.demo.services.ImageUrlRepairJob;
+import com.example.demo.services.KuulutusExportService;
+import com.example.demo.services.KuulutusService;
+import com.example.demo.services.LikeService;
+import com.example.demo.services.ListingImportService;
+import com.example.demo.services.ListingCache;
+import com.example.demo.services.StorageDeletionQueue;
+import com.example.demo.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
 
-// import java.io.File;
-import java.io.IOException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.InputStream;
 import java.math.BigDecimal;
-// import java.nio.file.Files;
-// import java.nio.file.Path;
-// import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-// import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/listings")
 @CrossOrigin(origins = {"http://localhost:19006", "http://10.15.16.201:19006"}, allowCredentials = "true")
 public class KuulutusController {
 
+    private static final int MAX_LIKED_CHECK_IDS = 200;
+
+    // Clients may keep responses but must revalidate them; replaces Spring Security's no-store default
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private KuulutusRepository kuulutusRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
     
     @Autowired
-    private SupabaseStorageService supabaseStorageService;
+    private ImageUploadService imageUploadService;
 
     @Autowired
-    private KuulutusImageRepository kuulutusImageRepository;
+    private LikedRepository likedRepository;
 
     @Autowired
-    private LikedRepository likedRepository;
+    private KuulutusService kuulutusService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private KuulutusExportService kuulutusExportService;
+
+    @Autowired
+    private ListingImportService listingImportService;
+
+    @Autowired
+    private ImageUrlRepairJob imageUrlRepairJob;
+
+    @Autowired
+    private StorageDeletionQueue storageDeletionQueue;
+
+    @Autowired
+    private ListingCache listingCache;
 
-    @Value("${upload.path:/uploads}")
-    private String uploadPath;
+    @Value("${listings.export.timeout:PT1H}")
+    private Duration exportTimeout;
 
     @PostMapping("/create")
     public ResponseEntity<Map<String, Object>> createKuulutus(
@@ -61,9 +101,12 @@ public class KuulutusController {
             @RequestParam(value = "images", required = false) List<MultipartFile> images) {
         
         Map<String, Object> response = new HashMap<>();
+        List<StoredImage> storedImages = new ArrayList<>();
         try {
-            User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userService.findById(userId);
+            if (user == null) {
+                throw new RuntimeException("User not found");
+            }
 
             Kuulutus kuulutus = new Kuulutus();
             kuulutus.setTitle(title);
@@ -72,25 +115,54 @@ public class KuulutusController {
             kuulutus.setDescription(description);
             kuulutus.setUser(user);
 
-            // Salvestage kuulutus enne piltide lisamist
-            Kuulutus savedKuulutus = kuulutusRepository.save(kuulutus);
-
-            // Handle multiple images
+            // Upload all images concurrently before anything is written to the database
             if (images != null) {
-                for (MultipartFile image : images) {
-                    String imageUrl = supabaseStorageService.uploadFile(image);
-                    System.out.println("Uploaded image URL: " + imageUrl);
-                    KuulutusImage kuulutusImage = new KuulutusImage();
-                    kuulutusImage.setImageUrl(imageUrl);
-                    kuulutusImage.setKuulutus(savedKuulutus); // Seosta salvestatud kuulutusega
-                    kuulutusImageRepository.save(kuulutusImage); // Salvestage pildi objekt
-                }
+                storedImages = imageUploadService.uploadImages(images);
             }
 
+            Kuulutus savedKuulutus = kuulutusService.createKuulutus(kuulutus, storedImages);
+
             response.put("success", true);
             response.put("message", "Listing created successfully");
             response.put("kuulutus", savedKuulutus);
             return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            // Nothing was committed, so the uploaded files belong to no listing
+            for (StoredImage storedImage : storedImages) {
+                storageDeletionQueue.enqueue(storedImage.allUrls());
+            }
+            response.put("success", false);
+            if (e instanceof RejectedExecutionException) {
+                return imagesBusy(response);
+            }
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // Bulk import; the body is CSV with a header row (text/csv) or NDJSON (application/x-ndjson)
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importKuulutused(
+            @RequestParam("user_id") Integer userId,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) {
+
+        Map<String, Object> response = new HashMap<>();
+        try {
+            ListingImportResult result = listingImportService.importListings(
+                userId, ListingImportService.resolveFormat(format, contentType), body);
+
+            response.put("success", result.getFailed() == 0);
+            response.put("message", "Imported " + result.getImported() + " of " + result.getReceived() + " listings");
+            response.put("result", result);
+            return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", "Too many imports in progress, please try again");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(response);
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", e.getMessage());
@@ -99,8 +171,57 @@ public class KuulutusController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Kuulutus>> getAllKuulutused() {
-        return ResponseEntity.ok(kuulutusRepository.findAll());
+    public ResponseEntity<CursorPage<KuulutusSummary>> getAllKuulutused(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        return feedPage(null, cursor, size, request);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<KuulutusSummary>> searchKuulutused(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(kuulutusService.searchListings(query, category, minPrice, maxPrice, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // e.g. /filter?categories=Books,Sports&minPrice=5&maxPrice=50&sort=price_asc
+    @GetMapping("/filter")
+    public ResponseEntity<CursorPage<KuulutusSummary>> filterKuulutused(
+            @ModelAttribute ListingFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(kuulutusService.filterListings(filter, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // NDJSON for bulk consumers, e.g. /export?updatedSince=2024-05-01T00:00:00Z. A full export
+    // outlasts the default async request timeout, so the stream gets its own (listings.export.timeout)
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportKuulutused(
+            @RequestParam(required = false) Instant updatedSince, HttpServletResponse response) {
+        response.setContentType("application/x-ndjson");
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            kuulutusExportService.exportNdjson(updatedSince, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(listingCache.stats());
     }
 
     @GetMapping("/user/{userId}")
@@ -115,13 +236,42 @@ public class KuulutusController {
         return ResponseEntity.ok(kuulutused);
     }
 
+    // Answers If-None-Match from a primary key lookup before the listing itself is loaded
     @GetMapping("/{id}")
-    public ResponseEntity<Kuulutus> getKuulutusById(@PathVariable Long id) {
-        return kuulutusRepository.findById(id)
-            .map(ResponseEntity::ok)
+    public ResponseEntity<Kuulutus> getKuulutusById(@PathVariable Long id, WebRequest request) {
+        Optional<String> currentETag = kuulutusService.getListingETag(id);
+        if (currentETag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (notModified(request, currentETag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(currentETag.get())
+                .cacheControl(REVALIDATE)
+                .build();
+        }
+        // The tag of the body actually sent, which may come from the listing cache
+        return kuulutusService.findKuulutus(id)
+            .map(kuulutus -> ResponseEntity.ok()
+                .eTag(ListingVersion.of(kuulutus).eTag())
+                .cacheControl(REVALIDATE)
+                .body(kuulutus))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/likes")
+    public ResponseEntity<Map<String, Object>> getLikeCount(@PathVariable Long id) {
+        return kuulutusService.getLikeCount(id)
+            .map(count -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("kuulutusId", id);
+                response.put("likeCount", count);
+                return ResponseEntity.ok(response);
+            })
             .orElse(ResponseEntity.notFound().build());
     }
 
+    // Pass the listing's ETag as If-Match (or its version as "version") to reject the update
+    // with 409 if someone else changed the listing first
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Object>> updateKuulutus(
             @PathVariable Long id,
@@ -130,50 +280,42 @@ public class KuulutusController {
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String description,
             @RequestParam Long userId,
+            @RequestParam(required = false) Long version,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestParam(value = "image", required = false) MultipartFile image) {
         
         Map<String, Object> response = new HashMap<>();
+        StoredImage storedImage = null;
         try {
-            Kuulutus kuulutus = kuulutusRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Listing not found"));
-            
-            if (!kuulutus.getUser().getId().equals(userId)) {
-                throw new RuntimeException("Not authorized to update this listing");
-            }
+            Long expectedVersion = version != null || ifMatch == null || ifMatch.trim().equals("*")
+                ? version
+                : ListingVersion.versionOf(ifMatch);
 
-            if (title != null) kuulutus.setTitle(title);
-            if (price != null) kuulutus.setPrice(price);
-            if (category != null) kuulutus.setCategory(category);
-            if (description != null) kuulutus.setDescription(description);
-
-            // Handle image update using Supabase
             if (image != null) {
-                // Delete old images if they exist
-                if (kuulutus.getImageUrls() != null && !kuulutus.getImageUrls().isEmpty()) {
-                    try {
-                        for (String imageUrl : kuulutus.getImageUrls()) {
-                            supabaseStorageService.deleteFile(imageUrl);
-                        }
-                    } catch (IOException e) {
-                        // Log error but continue
-                        System.err.println("Failed to delete old images: " + e.getMessage());
-                    }
-                }
-                
-                // Upload new image
-                String imageUrl = supabaseStorageService.uploadFile(image);
-                System.out.println("Uploaded image URL: " + imageUrl);
-                kuulutus.addImageUrl(imageUrl);
+                storedImage = imageUploadService.uploadImages(List.of(image)).get(0);
             }
 
-            Kuulutus updatedKuulutus = kuulutusRepository.save(kuulutus);
+            Kuulutus updatedKuulutus = kuulutusService.updateKuulutus(
+                id, userId, expectedVersion, title, price, category, description, storedImage);
             
             response.put("success", true);
             response.put("message", "Listing updated successfully");
             response.put("kuulutus", updatedKuulutus);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                .eTag(ListingVersion.of(updatedKuulutus).eTag())
+                .body(response);
         } catch (Exception e) {
+            if (storedImage != null) {
+                storageDeletionQueue.enqueue(storedImage.allUrls());
+            }
             response.put("success", false);
+            if (e instanceof OptimisticLockingFailureException) {
+                response.put("message", "Listing was changed by another update; reload it and try again");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            if (e instanceof RejectedExecutionException) {
+                return imagesBusy(response);
+            }
             response.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(response);
         }
@@ -185,29 +327,7 @@ public class KuulutusController {
             @RequestParam Long userId) {
         Map<String, Object> response = new HashMap<>();
         try {
-            Kuulutus kuulutus = kuulutusRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Listing not found"));
-            
-            System.out.println("User ID: " + userId);
-            System.out.println("Listing User ID: " + kuulutus.getUser().getId());
-            
-            if (!kuulutus.getUser().getId().equals(userId)) {
-                throw new RuntimeException("Not authorized to delete this listing");
-            }
-
-            // Delete images from Supabase if exists
-            if (kuulutus.getImageUrls() != null && !kuulutus.getImageUrls().isEmpty()) {
-                try {
-                    for (String imageUrl : kuulutus.getImageUrls()) {
-                        supabaseStorageService.deleteFile(imageUrl);
-                    }
-                } catch (IOException e) {
-                    // Log error but continue with deletion
-                    System.err.println("Failed to delete images: " + e.getMessage());
-                }
-            }
-
-            kuulutusRepository.delete(kuulutus);
+            kuulutusService.deleteKuulutus(id, userId);
             
             response.put("success", true);
             response.put("message", "Listing deleted successfully");
@@ -219,39 +339,31 @@ public class KuulutusController {
         }
     }
 
+    // Starts or resumes the background repair of malformed image URLs; pass "after" to start past an id
+    @PostMapping("/fix-image-urls")
+    public ResponseEntity<Map<String, Object>> startImageUrlRepair(@RequestParam(required = false) Long after) {
+        Map<String, Object> response = new HashMap<>();
+        boolean started = imageUrlRepairJob.start(after);
+        response.put("success", started);
+        response.put("message", started ? "Image URL repair started" : "Image URL repair is already running");
+        response.put("status", imageUrlRepairJob.status());
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+
     @GetMapping("/fix-image-urls")
-    public ResponseEntity<Map<String, Object>> fixImageUrls() {
+    public ResponseEntity<Map<String, Object>> getImageUrlRepairStatus() {
+        return ResponseEntity.ok(imageUrlRepairJob.status());
+    }
+
+    // Stops a running repair after its current chunk; a later POST resumes it
+    @DeleteMapping("/fix-image-urls")
+    public ResponseEntity<Map<String, Object>> stopImageUrlRepair() {
         Map<String, Object> response = new HashMap<>();
-        try {
-            List<Kuulutus> kuulutused = kuulutusRepository.findAll();
-            int fixedCount = 0;
-            
-            for (Kuulutus kuulutus : kuulutused) {
-                List<String> imageUrls = kuulutus.getImageUrls();
-                for (String imageUrl : imageUrls) {
-                    if (imageUrl != null && (imageUrl.contains("http:/") && imageUrl.contains("https:/"))) {
-                        // Extract the Supabase part of the URL
-                        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("https://isgqnyhkexduycwmcjxa\\.supabase\\.co/storage/v1/object/public/listings/[^/]+\\.[a-zA-Z0-9]+");
-                        java.util.regex.Matcher matcher = pattern.matcher(imageUrl);
-                        
-                        if (matcher.find()) {
-                            String fixedUrl = matcher.group(0);
-                            kuulutus.addImageUrl(fixedUrl);
-                            kuulutusRepository.save(kuulutus);
-                            fixedCount++;
-                        }
-                    }
-                }
-            }
-            
-            response.put("success", true);
-            response.put("message", "Fixed " + fixedCount + " image URLs");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
-        }
+        boolean wasRunning = imageUrlRepairJob.stop();
+        response.put("success", wasRunning);
+        response.put("message", wasRunning ? "Image URL repair is stopping" : "Image URL repair is not running");
+        response.put("status", imageUrlRepairJob.status());
+        return ResponseEntity.ok(response);
     }
 
     // Likes a listing
@@ -259,24 +371,10 @@ public class KuulutusController {
     public ResponseEntity<Map<String, Object>> likeKuulutus(@RequestBody LikeRequest likeRequest) {
         Map<String, Object> response = new HashMap<>();
         try {
-            Long userId = likeRequest.getUserId();
-            Long kuulutusId = likeRequest.getKuulutusId();
-
-            // Check if the listing exists
-            Kuulutus kuulutus = kuulutusRepository.findById(kuulutusId)
-                .orElseThrow(() -> new RuntimeException("Kuulutus not found"));
-
-            // Optionally, you can log or use the kuulutus variable here
-            System.out.println("Liking listing: " + kuulutus.getTitle());
-
-            // Add to liked
-            Liked liked = new Liked();
-            liked.setUserId(userId);
-            liked.setKuulutusId(kuulutusId);
-            likedRepository.save(liked);
+            boolean created = likeService.like(likeRequest.getUserId(), likeRequest.getKuulutusId());
 
             response.put("success", true);
-            response.put("message", "Listing liked successfully");
+            response.put("message", created ? "Listing liked successfully" : "Listing already liked");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.put("success", false);
@@ -293,17 +391,40 @@ public class KuulutusController {
         return ResponseEntity.ok(likedKuulutused);
     }
 
+    // Liked listings page by page, most recently liked first
+    @GetMapping("/liked/{userId}/page")
+    public ResponseEntity<CursorPage<KuulutusSummary>> getLikedKuulutusedPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(kuulutusService.getLikedPage(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Which of a page of listings the user has liked, e.g. /liked/7/check?ids=3,5,8
+    @GetMapping("/liked/{userId}/check")
+    public ResponseEntity<Map<String, Object>> checkLiked(
+            @PathVariable Long userId,
+            @RequestParam("ids") List<Long> ids) {
+        Map<String, Object> response = new HashMap<>();
+        if (ids.size() > MAX_LIKED_CHECK_IDS) {
+            response.put("success", false);
+            response.put("message", "At most " + MAX_LIKED_CHECK_IDS + " ids per request");
+            return ResponseEntity.badRequest().body(response);
+        }
+        response.put("success", true);
+        response.put("likedIds", likeService.findLikedIds(userId, ids));
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/unlike")
     public ResponseEntity<Map<String, Object>> unlikeKuulutus(@RequestBody LikeRequest likeRequest) {
         Map<String, Object> response = new HashMap<>();
         try {
-            Long userId = likeRequest.getUserId();
-            Long kuulutusId = likeRequest.getKuulutusId();
-
-            // Check if liked entry exists
-            Liked liked = likedRepository.findByUserIdAndKuulutusId(userId, kuulutusId);
-            if (liked != null) {
-                likedRepository.delete(liked);
+            if (likeService.unlike(likeRequest.getUserId(), likeRequest.getKuulutusId())) {
                 response.put("success", true);
                 response.put("message", "Like removed successfully");
             } else {
@@ -319,18 +440,58 @@ public class KuulutusController {
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Kuulutus>> getKuulutusedByCategory(@PathVariable String category) {
-        System.out.println("Fetching listings for category: " + category);
-        
-        List<Kuulutus> kuulutused;
-        if (category.equalsIgnoreCase("All")) {
-            kuulutused = kuulutusRepository.findAll(); // Tagastab kõik kuulutused
-        } else {
-            kuulutused = kuulutusRepository.findByCategory(category);
+    public ResponseEntity<CursorPage<KuulutusSummary>> getKuulutusedByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        return feedPage(category, cursor, size, request);
+    }
+
+    // Feed pages carry the feed version as weak ETag; an unchanged poll costs one version lookup
+    private ResponseEntity<CursorPage<KuulutusSummary>> feedPage(String category, String cursor, Integer size,
+                                                                 WebRequest request) {
+        long version = kuulutusService.getFeedVersion(category);
+        if (notModified(request, FeedPage.eTag(version))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(FeedPage.eTag(version))
+                .cacheControl(REVALIDATE)
+                .build();
         }
-        
-        System.out.println("Listings found: " + kuulutused.size());
-        
-        return ResponseEntity.ok(kuulutused);
+        try {
+            FeedPage page = kuulutusService.getFeedPage(category, version, cursor, size);
+            return ResponseEntity.ok()
+                .eTag(page.eTag())
+                .cacheControl(REVALIDATE)
+                .body(page.getPage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Image processing is at capacity (see ImageProcessingService); nothing was saved
+    private static ResponseEntity<Map<String, Object>> imagesBusy(Map<String, Object> response) {
+        response.put("message", "Server is busy processing images, please try again");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .body(response);
+    }
+
+    // Weak comparison, as If-None-Match requires: W/"x" and "x" match
+    private static boolean notModified(WebRequest request, String eTag) {
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 } 
\ No newline at end of file
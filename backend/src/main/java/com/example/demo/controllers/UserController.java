@@ -1,7 +1,9 @@
 package com.example.demo.controllers;
 
 import com.example.demo.models.Kuulutus;
+import com.example.demo.models.CursorPage;
 import com.example.demo.models.User;
+import com.example.demo.models.UserSummary;
 import com.example.demo.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +11,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -26,37 +29,41 @@ public class UserController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<User>> getAllUsers() {
-        System.out.println("Fetching all users");
-        List<User> users = userService.findAllUsers();
-        System.out.println("Found " + users.size() + " users");
-        return ResponseEntity.ok(users);
+    public ResponseEntity<CursorPage<UserSummary>> getAllUsers(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(userService.getUserPage(prefix, cursor, size));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(userService.getCacheStats());
     }
 
     @GetMapping("/profile")
     public ResponseEntity<User> getUserProfile() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
-        System.out.println("Authenticated user email: " + email);
         User user = userService.findByEmail(email);
         
         if (user != null) {
             return ResponseEntity.ok(user);
         } else {
-            System.out.println("User not found for email: " + email);
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping("/profile/{email}")
     public ResponseEntity<?> getUserProfile(@PathVariable String email) {
-        System.out.println("Fetching profile for email: " + email);
         User user = userService.findByEmail(email);
         if (user != null) {
-            System.out.println("Found user: " + user.getNimi());
             return ResponseEntity.ok(user);
         }
-        System.out.println("User not found for email: " + email);
         return ResponseEntity.notFound().build();
     }
 
@@ -0,0 +1,25 @@
+package com.example.demo.models;
+
+/**
+ * A feed page together with the feed version it was read at; the version is the page's ETag.
+ */
+public class FeedPage {
+    private final long version;
+    private final CursorPage<KuulutusSummary> page;
+
+    public FeedPage(long version, CursorPage<KuulutusSummary> page) {
+        this.version = version;
+        this.page = page;
+    }
+
+    public static String eTag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    public String eTag() {
+        return eTag(version);
+    }
+
+    public long getVersion() { return version; }
+    public CursorPage<KuulutusSummary> getPage() { return page; }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.models;
+
+import javax.persistence.*;
+
+/**
+ * Change counter of one category's feed. Every transaction that changes what a feed page
+ * shows (listing writes, like count flushes, image repairs) increments the counters of the
+ * affected categories before it commits, so a counter value always names one state of the
+ * feed. The feed of all categories uses the sum of the counters.
+ */
+@Entity
+@Table(name = "feed_versions")
+public class FeedVersion {
+    @Id
+    private String category;
+
+    @Column(nullable = false)
+    private long version;
+
+    public FeedVersion() {}
+
+    // Getters and Setters
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
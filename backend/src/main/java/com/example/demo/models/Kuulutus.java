@@ -1,15 +1,29 @@
 package com.example.demo.models;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import javax.persistence.*;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "kuulutus")
+@Table(name = "kuulutus", indexes = {
+    @Index(name = "idx_kuulutus_category_id", columnList = "category, id"),
+    // Filter API: price range within categories, price sorts, and per-seller pages
+    @Index(name = "idx_kuulutus_category_price_id", columnList = "category, price, id"),
+    @Index(name = "idx_kuulutus_price_id", columnList = "price, id"),
+    @Index(name = "idx_kuulutus_user_id_id", columnList = "user_id, id"),
+    // Incremental export (updatedSince)
+    @Index(name = "idx_kuulutus_updated_at_id", columnList = "updated_at, id")
+})
 public class Kuulutus {
+    // Pooled sequence instead of IDENTITY so inserts can be JDBC-batched (see db/postgres/005-sequence-ids.sql)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kuulutus_seq")
+    @SequenceGenerator(name = "kuulutus_seq", sequenceName = "kuulutus_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -21,7 +35,9 @@ public class Kuulutus {
     @Column(nullable = false)
     private String category;
 
+    // Read view of kuulutus_images; new image rows are written through KuulutusImage
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "kuulutus_images", joinColumns = @JoinColumn(name = "kuulutus_id"))
     @Column(name = "image_url")
     private List<String> imageUrls = new ArrayList<>();
@@ -33,6 +49,22 @@ public class Kuulutus {
     @JoinColumn(name = "user_id")
     private User user;
 
+    // Maintained only by LikeCounterService's batched UPDATEs, never through the entity
+    @Column(name = "like_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0")
+    private long likeCount;
+
+    // Set by Hibernate when the entity is flushed, not when it commits (see KuulutusExportService);
+    // like count flushes and image URL repairs set it with the database clock
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false, columnDefinition = "timestamp default current_timestamp")
+    private Instant updatedAt;
+
+    // Optimistic lock; with likeCount it is also the listing's ETag (see ListingVersion)
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -73,10 +105,6 @@ public class Kuulutus {
     public void setImageUrls(List<String> imageUrls) {
         this.imageUrls = imageUrls;
     }
-     // Add this method
-     public void addImageUrl(String imageUrl) {
-        this.imageUrls.add(imageUrl);
-    }
 
     public String getDescription() {
         return description;
@@ -93,4 +121,28 @@ public class Kuulutus {
     public void setUser(User user) {
         this.user = user;
     }
-} 
\ No newline at end of file
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
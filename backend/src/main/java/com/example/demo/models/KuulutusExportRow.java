@@ -0,0 +1,59 @@
+package com.example.demo.models;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of the NDJSON listing export. Built by a JPQL constructor expression, so
+ * streamed rows never enter the persistence context; imageUrls are filled in per chunk.
+ */
+public class KuulutusExportRow {
+    private Long id;
+    private String title;
+    private BigDecimal price;
+    private String category;
+    private String description;
+    private Integer sellerId;
+    private String sellerName;
+    private long likeCount;
+    private Instant updatedAt;
+    private List<String> imageUrls = new ArrayList<>();
+
+    public KuulutusExportRow() {}
+    public KuulutusExportRow(Long id, String title, BigDecimal price, String category, String description,
+                             Integer sellerId, String sellerName, long likeCount, Instant updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.category = category;
+        this.description = description;
+        this.sellerId = sellerId;
+        this.sellerName = sellerName;
+        this.likeCount = likeCount;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Integer getSellerId() { return sellerId; }
+    public void setSellerId(Integer sellerId) { this.sellerId = sellerId; }
+    public String getSellerName() { return sellerName; }
+    public void setSellerName(String sellerName) { this.sellerName = sellerName; }
+    public long getLikeCount() { return likeCount; }
+    public void setLikeCount(long likeCount) { this.likeCount = likeCount; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public List<String> getImageUrls() { return imageUrls; }
+    public void setImageUrls(List<String> imageUrls) { this.imageUrls = imageUrls; }
+}
@@ -3,10 +3,13 @@ package com.example.demo.models;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "kuulutus_images")
+@Table(name = "kuulutus_images", indexes = {
+    @Index(name = "idx_kuulutus_images_kuulutus_id", columnList = "kuulutus_id, id")
+})
 public class KuulutusImage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kuulutus_images_seq")
+    @SequenceGenerator(name = "kuulutus_images_seq", sequenceName = "kuulutus_images_seq", allocationSize = 50)
     private Integer id;
 
     @ManyToOne
@@ -16,6 +19,20 @@ public class KuulutusImage {
     @Column(name = "image_url", nullable = false)
     private String imageUrl;
 
+    @Column(name = "medium_url")
+    private String mediumUrl;
+
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    public KuulutusImage() {}
+    public KuulutusImage(Kuulutus kuulutus, StoredImage storedImage) {
+        this.kuulutus = kuulutus;
+        this.imageUrl = storedImage.getImageUrl();
+        this.mediumUrl = storedImage.getMediumUrl();
+        this.thumbnailUrl = storedImage.getThumbnailUrl();
+    }
+
     // Getters and Setters
     public Integer getId() {
         return id;
@@ -40,4 +57,20 @@ public class KuulutusImage {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
-} 
\ No newline at end of file
+
+    public String getMediumUrl() {
+        return mediumUrl;
+    }
+
+    public void setMediumUrl(String mediumUrl) {
+        this.mediumUrl = mediumUrl;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.models;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of a listing for feeds and category pages. Built directly by JPQL
+ * constructor expressions so the description and seller entity are never loaded.
+ */
+public class KuulutusSummary {
+    private Long id;
+    private String title;
+    private BigDecimal price;
+    private String category;
+    private String imageUrl;
+    private String thumbnailUrl;
+    private String sellerName;
+    private long likeCount;
+
+    public KuulutusSummary() {}
+    public KuulutusSummary(Long id, String title, BigDecimal price, String category,
+                           String imageUrl, String thumbnailUrl, String sellerName, long likeCount) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.category = category;
+        this.imageUrl = imageUrl;
+        this.thumbnailUrl = thumbnailUrl;
+        this.sellerName = sellerName;
+        this.likeCount = likeCount;
+    }
+
+    // Copy with a different like count; cached summaries are shared and never mutated
+    public KuulutusSummary withLikeCount(long likeCount) {
+        return new KuulutusSummary(id, title, price, category, imageUrl, thumbnailUrl, sellerName, likeCount);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public String getSellerName() { return sellerName; }
+    public void setSellerName(String sellerName) { this.sellerName = sellerName; }
+    public long getLikeCount() { return likeCount; }
+    public void setLikeCount(long likeCount) { this.likeCount = likeCount; }
+}
@@ -1,9 +1,15 @@
 package com.example.demo.models;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Entity
-@Table(name = "liked")
+@Table(name = "liked", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_liked_user_kuulutus", columnNames = {"user_id", "kuulutus_id"})
+}, indexes = {
+    // Favourites tab: a user's likes, newest first
+    @Index(name = "idx_liked_user_liked_at", columnList = "user_id, liked_at DESC, id DESC")
+})
 public class Liked {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,6 +21,11 @@ public class Liked {
     @Column(name = "kuulutus_id", nullable = false)
     private Long kuulutusId;
 
+    // Set by the database when the row is inserted
+    @Column(name = "liked_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "timestamp default current_timestamp")
+    private Instant likedAt;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -39,4 +50,12 @@ public class Liked {
     public void setKuulutusId(Long kuulutusId) {
         this.kuulutusId = kuulutusId;
     }
-} 
\ No newline at end of file
+
+    public Instant getLikedAt() {
+        return likedAt;
+    }
+
+    public void setLikedAt(Instant likedAt) {
+        this.likedAt = likedAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.models;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Query parameters of GET /api/listings/filter. Every field is optional.
+ */
+public class ListingFilter {
+    private List<String> categories;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer sellerId;
+    private String sort;
+
+    // Getters and Setters
+    public List<String> getCategories() { return categories; }
+    public void setCategories(List<String> categories) { this.categories = categories; }
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+    public Integer getSellerId() { return sellerId; }
+    public void setSellerId(Integer sellerId) { this.sellerId = sellerId; }
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+}
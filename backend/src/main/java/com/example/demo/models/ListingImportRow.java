@@ -0,0 +1,31 @@
+package com.example.demo.models;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One listing of a bulk import, read from a CSV row or an NDJSON line. Images are given
+ * as URLs that are already publicly reachable; nothing is uploaded during an import.
+ */
+public class ListingImportRow {
+    private String title;
+    private BigDecimal price;
+    private String category;
+    private String description;
+    private List<String> imageUrls = new ArrayList<>();
+
+    public ListingImportRow() {}
+
+    // Getters and Setters
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public List<String> getImageUrls() { return imageUrls; }
+    public void setImageUrls(List<String> imageUrls) { this.imageUrls = imageUrls != null ? imageUrls : new ArrayList<>(); }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.models;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Locale;
+
+/**
+ * Orderings supported by the listing filter. Every ordering ends with id so keyset
+ * pagination has a unique tie-breaker.
+ */
+public enum ListingSort {
+    NEWEST(Sort.by(Sort.Order.desc("id"))),
+    PRICE_ASC(Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"))),
+    PRICE_DESC(Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id")));
+
+    private final Sort sort;
+
+    ListingSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public static ListingSort fromParam(String value) {
+        if (value == null || value.isEmpty()) {
+            return NEWEST;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + value, e);
+        }
+    }
+}
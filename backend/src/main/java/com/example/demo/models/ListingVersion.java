@@ -0,0 +1,51 @@
+package com.example.demo.models;
+
+/**
+ * What a listing's detail view depends on besides its row: the optimistic-lock version
+ * (bumped by every entity update) and like_count (written outside the entity by
+ * LikeCounterService). Together they make the listing's strong ETag.
+ */
+public class ListingVersion {
+    private Long version;
+    private long likeCount;
+
+    public ListingVersion() {}
+    public ListingVersion(Long version, long likeCount) {
+        this.version = version;
+        this.likeCount = likeCount;
+    }
+
+    public static ListingVersion of(Kuulutus kuulutus) {
+        return new ListingVersion(kuulutus.getVersion(), kuulutus.getLikeCount());
+    }
+
+    public String eTag() {
+        return "\"" + version + "-" + likeCount + "\"";
+    }
+
+    /**
+     * The version part of an ETag from {@link #eTag()}, e.g. from an If-Match header. Like
+     * counts are ignored: a like in between must not make an edit conflict.
+     */
+    public static Long versionOf(String eTag) {
+        String value = eTag.trim();
+        if (value.startsWith("W/")) {
+            throw new IllegalArgumentException("If-Match needs the strong ETag of the listing");
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        int dash = value.indexOf('-');
+        try {
+            return Long.valueOf(dash >= 0 ? value.substring(0, dash) : value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + eTag, e);
+        }
+    }
+
+    // Getters and Setters
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public long getLikeCount() { return likeCount; }
+    public void setLikeCount(long likeCount) { this.likeCount = likeCount; }
+}
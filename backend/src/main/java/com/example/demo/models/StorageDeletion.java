@@ -0,0 +1,48 @@
+package com.example.demo.models;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * A stored file waiting to be removed from object storage. Rows are written in the
+ * same transaction as the listing change and drained by StorageDeletionWorker.
+ */
+@Entity
+@Table(name = "storage_deletion_queue", indexes = {
+    @Index(name = "idx_storage_deletion_next_attempt", columnList = "next_attempt_at, id")
+})
+public class StorageDeletion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_url", nullable = false, length = 1024)
+    private String fileUrl;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    public StorageDeletion() {}
+    public StorageDeletion(String fileUrl, Instant nextAttemptAt) {
+        this.fileUrl = fileUrl;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getFileUrl() { return fileUrl; }
+    public void setFileUrl(String fileUrl) { this.fileUrl = fileUrl; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
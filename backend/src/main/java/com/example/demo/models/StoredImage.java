@@ -0,0 +1,32 @@
+package com.example.demo.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Public URLs of the variants produced for one uploaded image.
+ */
+public class StoredImage {
+    private String imageUrl;
+    private String mediumUrl;
+    private String thumbnailUrl;
+
+    public StoredImage() {}
+    public StoredImage(String imageUrl, String mediumUrl, String thumbnailUrl) {
+        this.imageUrl = imageUrl;
+        this.mediumUrl = mediumUrl;
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public List<String> allUrls() {
+        return Arrays.asList(imageUrl, mediumUrl, thumbnailUrl);
+    }
+
+    // Getters and Setters
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public String getMediumUrl() { return mediumUrl; }
+    public void setMediumUrl(String mediumUrl) { this.mediumUrl = mediumUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.models;
+
+/**
+ * Public view of a user for lists; never carries the email or password hash.
+ */
+public class UserSummary {
+    private Integer id;
+    private String nimi;
+
+    public UserSummary() {}
+    public UserSummary(Integer id, String nimi) {
+        this.id = id;
+        this.nimi = nimi;
+    }
+
+    // Getters and Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    public String getNimi() { return nimi; }
+    public void setNimi(String nimi) { this.nimi = nimi; }
+}
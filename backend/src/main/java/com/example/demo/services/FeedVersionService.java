@@ -0,0 +1,45 @@
+package com.example.demo.services;
+
+import com.example.demo.Repository.FeedVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Feed versions (see FeedVersion): the weak ETag of every feed page, read with one
+ * primary key lookup (or a sum over the per-category rows for all categories).
+ */
+@Service
+public class FeedVersionService {
+
+    @Autowired
+    private FeedVersionRepository feedVersionRepository;
+
+    // A null or "All" category means every category
+    public long current(String category) {
+        if (category == null || category.equalsIgnoreCase(ListingCache.ALL_CATEGORIES)) {
+            return feedVersionRepository.sumVersions();
+        }
+        return feedVersionRepository.findVersion(category).orElse(0L);
+    }
+
+    /**
+     * Increments the versions of the given categories. Must run in the transaction that
+     * changes the listings, so the new version commits together with the data. Rows are
+     * locked in sorted order, so concurrent writers cannot deadlock on them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bump(Collection<String> categories) {
+        TreeSet<String> sorted = new TreeSet<>();
+        categories.stream().filter(Objects::nonNull).forEach(sorted::add);
+        for (String category : sorted) {
+            feedVersionRepository.insertIfAbsent(category);
+            feedVersionRepository.increment(category);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.demo.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.NodeList;
+
+import javax.annotation.PostConstruct;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes an uploaded image once and re-encodes it as compressed JPEG variants:
+ * a feed thumbnail, a medium size for detail screens and the full-resolution original.
+ * Every variant is turned upright according to the EXIF orientation, since the re-encoded
+ * files carry no metadata. A decoded image can take tens of MB, so only
+ * {@code images.max-concurrent} images are processed at once.
+ */
+@Service
+public class ImageProcessingService {
+
+    @Value("${images.thumbnail.max-size:320}")
+    private int thumbnailMaxSize;
+
+    @Value("${images.medium.max-size:1280}")
+    private int mediumMaxSize;
+
+    @Value("${images.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    // Refuse to decode anything larger, so one upload cannot exhaust the heap (4 bytes per pixel)
+    @Value("${images.max-pixels:24000000}")
+    private long maxPixels;
+
+    @Value("${images.max-concurrent:2}")
+    private int maxConcurrent;
+
+    // How long an upload waits for a free slot before it is turned away
+    @Value("${images.max-wait:PT10S}")
+    private Duration maxWait;
+
+    private Semaphore decodes;
+
+    @PostConstruct
+    void init() {
+        decodes = new Semaphore(maxConcurrent);
+    }
+
+    public static class ProcessedImage {
+        private final Path original;
+        private final Path medium;
+        private final Path thumbnail;
+
+        ProcessedImage(Path original, Path medium, Path thumbnail) {
+            this.original = original;
+            this.medium = medium;
+            this.thumbnail = thumbnail;
+        }
+
+        public Path getOriginal() { return original; }
+        public Path getMedium() { return medium; }
+        public Path getThumbnail() { return thumbnail; }
+
+        public void deleteFiles() throws IOException {
+            Files.deleteIfExists(original);
+            Files.deleteIfExists(medium);
+            Files.deleteIfExists(thumbnail);
+        }
+    }
+
+    /**
+     * Throws RejectedExecutionException when no processing slot frees up within
+     * {@code images.max-wait}.
+     */
+    public ProcessedImage process(Path source) throws IOException {
+        try {
+            if (!decodes.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Too many images being processed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to process image", e);
+        }
+        try {
+            BufferedImage decoded = decode(source);
+            Path original = writeJpeg(decoded);
+            Path medium = writeJpeg(scaleToFit(decoded, mediumMaxSize));
+            Path thumbnail = writeJpeg(scaleToFit(decoded, thumbnailMaxSize));
+            return new ProcessedImage(original, medium, thumbnail);
+        } finally {
+            decodes.release();
+        }
+    }
+
+    // Upright and without alpha, ready for the JPEG writer
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("Image is too large: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                int orientation = orientation(reader);
+                return upright(reader.read(0), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // EXIF orientation (1-8) of a JPEG, 1 when there is none or it cannot be read
+    private static int orientation(ImageReader reader) {
+        IIOMetadata metadata;
+        try {
+            metadata = reader.getImageMetadata(0);
+        } catch (IOException e) {
+            return 1;
+        }
+        String format = "javax_imageio_jpeg_image_1.0";
+        if (metadata == null || !format.equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+        // APP1 segments show up as "unknown" markers with tag 225
+        NodeList markers = root.getElementsByTagName("unknown");
+        for (int i = 0; i < markers.getLength(); i++) {
+            IIOMetadataNode marker = (IIOMetadataNode) markers.item(i);
+            if ("225".equals(marker.getAttribute("MarkerTag")) && marker.getUserObject() instanceof byte[]) {
+                int orientation = exifOrientation((byte[]) marker.getUserObject());
+                if (orientation != 0) {
+                    return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Reads tag 0x0112 from IFD0 of an "Exif\0\0" APP1 payload; 0 if it is not there
+    private static int exifOrientation(byte[] app1) {
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f'
+                || app1[4] != 0 || app1[5] != 0) {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return 0;
+        }
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd > tiff.limit() - 2) {
+            return 0;
+        }
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry > tiff.limit() - 12) {
+                break;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == 0x0112) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF;
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Applies the EXIF orientation and flattens alpha onto white, as JPEG has no alpha channel.
+     * Both happen in one draw; an upright image the JPEG writer takes as is is not copied.
+     */
+    private static BufferedImage upright(BufferedImage image, int orientation) {
+        boolean writable = !image.getColorModel().hasAlpha()
+            && (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR
+                || image.getType() == BufferedImage.TYPE_BYTE_GRAY);
+        if (orientation == 1 && writable) {
+            return image;
+        }
+
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2: transform.translate(w, 0); transform.scale(-1, 1); break;
+            case 3: transform.translate(w, h); transform.rotate(Math.PI); break;
+            case 4: transform.translate(0, h); transform.scale(1, -1); break;
+            case 5: transform.rotate(-Math.PI / 2); transform.scale(-1, 1); break;
+            case 6: transform.translate(h, 0); transform.rotate(Math.PI / 2); break;
+            case 7: transform.translate(h, w); transform.rotate(Math.PI / 2); transform.scale(-1, 1); break;
+            case 8: transform.translate(0, w); transform.rotate(-Math.PI / 2); break;
+            default: break;
+        }
+        // Orientations 5-8 swap width and height
+        boolean swap = orientation >= 5;
+        BufferedImage rgb = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private BufferedImage scaleToFit(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (Math.max(width, height) <= maxSize) {
+            return image;
+        }
+        double scale = (double) maxSize / Math.max(width, height);
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        // Halve repeatedly before the final bilinear step; a single large step aliases badly
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return resize(current, targetWidth, targetHeight);
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    private Path writeJpeg(BufferedImage image) throws IOException {
+        Path target = Files.createTempFile("listing-image-", ".jpg");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.services;
+
+import com.example.demo.models.StoredImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Upload pipeline for listing photos: each multipart part is spooled to a temp file,
+ * decoded once into thumbnail/medium/original JPEGs and the variants are uploaded
+ * concurrently, at most {@code storage.upload.concurrency} requests at a time.
+ */
+@Service
+public class ImageUploadService {
+
+    private static final String JPEG = "image/jpeg";
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private ImageProcessingService imageProcessingService;
+
+    @Autowired
+    private StorageDeletionQueue storageDeletionQueue;
+
+    @Value("${storage.upload.concurrency:4}")
+    private int uploadConcurrency;
+
+    /**
+     * Returns the stored variants in the same order as the files. If any upload fails,
+     * everything already uploaded is queued for deletion and the first error is thrown;
+     * RejectedExecutionException means the server had no capacity to process the images.
+     */
+    public List<StoredImage> uploadImages(List<MultipartFile> files) throws IOException {
+        List<Path> sources = new ArrayList<>();
+        List<ImageProcessingService.ProcessedImage> processed = new ArrayList<>();
+        List<CompletableFuture<StoredImage>> uploads = new ArrayList<>();
+        List<String> uploadedUrls = Collections.synchronizedList(new ArrayList<>());
+        Semaphore permits = new Semaphore(uploadConcurrency);
+        IOException failure = null;
+        RejectedExecutionException busy = null;
+
+        try {
+            for (MultipartFile file : files) {
+                Path source = Files.createTempFile("listing-upload-", null);
+                sources.add(source);
+                file.transferTo(source);
+
+                // Decoding the next file overlaps with the uploads of the previous one
+                ImageProcessingService.ProcessedImage image = imageProcessingService.process(source);
+                processed.add(image);
+
+                String name = UUID.randomUUID().toString();
+                CompletableFuture<String> original = upload(image.getOriginal(), name + ".jpg", permits, uploadedUrls);
+                CompletableFuture<String> medium = upload(image.getMedium(), name + "-medium.jpg", permits, uploadedUrls);
+                CompletableFuture<String> thumbnail = upload(image.getThumbnail(), name + "-thumb.jpg", permits, uploadedUrls);
+                uploads.add(CompletableFuture.allOf(original, medium, thumbnail)
+                        .thenApply(done -> new StoredImage(original.join(), medium.join(), thumbnail.join())));
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (RejectedExecutionException e) {
+            // No processing slot; clean up like any other failure, then let the caller answer 503
+            busy = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new IOException("Interrupted while uploading images", e);
+        }
+
+        // Wait for everything already started, so cleanup sees every successful upload
+        List<StoredImage> stored = new ArrayList<>();
+        for (CompletableFuture<StoredImage> upload : uploads) {
+            try {
+                stored.add(upload.join());
+            } catch (CompletionException e) {
+                if (failure == null && busy == null) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    failure = new IOException("Error uploading image: " + cause.getMessage(), cause);
+                }
+            }
+        }
+
+        for (Path source : sources) {
+            Files.deleteIfExists(source);
+        }
+        for (ImageProcessingService.ProcessedImage image : processed) {
+            image.deleteFiles();
+        }
+
+        if (failure != null || busy != null) {
+            storageDeletionQueue.enqueue(new ArrayList<>(uploadedUrls));
+            if (busy != null) {
+                throw busy;
+            }
+            throw failure;
+        }
+        return stored;
+    }
+
+    private CompletableFuture<String> upload(Path file, String filename, Semaphore permits, List<String> uploadedUrls)
+            throws InterruptedException {
+        permits.acquire();
+        return storageService.uploadAsync(file, filename, JPEG)
+                .whenComplete((url, error) -> {
+                    permits.release();
+                    if (url != null) {
+                        uploadedUrls.add(url);
+                    }
+                });
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.demo.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Repairs image URLs that were saved with a bogus prefix in front of the storage URL, e.g.
+ * "http://10.0.2.2:8080https://...supabase.co/storage/v1/object/public/listings/x.jpg".
+ * The job walks kuulutus_images in id order, one chunk at a time. Each chunk is read outside
+ * any transaction. The rows that need a fix are then updated in one JDBC batch, in a short
+ * transaction per chunk. Locks are held only for that batch, and memory use depends only on
+ * the chunk size. The last finished id is kept, so a stopped or failed run resumes from there.
+ */
+@Service
+public class ImageUrlRepairJob {
+
+    public enum State { IDLE, RUNNING, STOPPED, FAILED, COMPLETED }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ListingCache listingCache;
+
+    @Autowired
+    private FeedVersionService feedVersionService;
+
+    @Value("${listings.image-repair.public-url-prefix:https://isgqnyhkexduycwmcjxa.supabase.co/storage/v1/object/public/listings/}")
+    private String publicUrlPrefix;
+
+    @Value("${listings.image-repair.chunk-size:1000}")
+    private int chunkSize;
+
+    // Breathing room between chunks so the job never saturates the database
+    @Value("${listings.image-repair.pause-ms:100}")
+    private long pauseMs;
+
+    private Pattern publicUrl;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong fixed = new AtomicLong();
+    private volatile boolean stopRequested;
+    private volatile long lastId;
+    private volatile State state = State.IDLE;
+    private volatile String error;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    @PostConstruct
+    void init() {
+        publicUrl = Pattern.compile(Pattern.quote(publicUrlPrefix) + "[^/?#\\s]+\\.[a-zA-Z0-9]+");
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-url-repair");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopRequested = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts the job in the background unless it is already running. Without {@code afterId}
+     * a stopped or failed run resumes from its last chunk, and a completed run starts over.
+     */
+    public boolean start(Long afterId) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        if (afterId != null || state == State.COMPLETED) {
+            lastId = afterId != null ? afterId : 0;
+            scanned.set(0);
+            fixed.set(0);
+        }
+        stopRequested = false;
+        error = null;
+        startedAt = Instant.now();
+        finishedAt = null;
+        state = State.RUNNING;
+        executor.execute(this::run);
+        return true;
+    }
+
+    /**
+     * Asks a running job to stop after its current chunk.
+     */
+    public boolean stop() {
+        stopRequested = true;
+        return running.get();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("lastId", lastId);
+        status.put("scanned", scanned.get());
+        status.put("fixed", fixed.get());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("error", error);
+        return status;
+    }
+
+    private void run() {
+        try {
+            while (!stopRequested) {
+                List<ImageRow> rows = jdbcTemplate.query(
+                    "SELECT id, kuulutus_id, image_url, medium_url, thumbnail_url FROM kuulutus_images"
+                        + " WHERE id > ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new ImageRow(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5)),
+                    lastId, chunkSize);
+                if (rows.isEmpty()) {
+                    state = State.COMPLETED;
+                    return;
+                }
+
+                List<Object[]> updates = new ArrayList<>();
+                List<Long> kuulutusIds = new ArrayList<>();
+                for (ImageRow row : rows) {
+                    String imageUrl = repair(row.imageUrl);
+                    String mediumUrl = repair(row.mediumUrl);
+                    String thumbnailUrl = repair(row.thumbnailUrl);
+                    if (!Objects.equals(imageUrl, row.imageUrl) || !Objects.equals(mediumUrl, row.mediumUrl)
+                            || !Objects.equals(thumbnailUrl, row.thumbnailUrl)) {
+                        updates.add(new Object[] {imageUrl, mediumUrl, thumbnailUrl, row.id, row.imageUrl});
+                        kuulutusIds.add(row.kuulutusId);
+                    }
+                }
+                if (!updates.isEmpty()) {
+                    fixed.addAndGet(transactionTemplate.execute(status -> update(updates, kuulutusIds)));
+                }
+
+                scanned.addAndGet(rows.size());
+                lastId = rows.get(rows.size() - 1).id;
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+            state = State.STOPPED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.STOPPED;
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            state = State.FAILED;
+        } finally {
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+
+    // A row edited since the chunk was read no longer matches its old image_url and is left alone
+    // kuulutusIds holds the listing of each update, in the same order
+    private int update(List<Object[]> updates, List<Long> kuulutusIds) {
+        int[] counts = jdbcTemplate.batchUpdate(
+            "UPDATE kuulutus_images SET image_url = ?, medium_url = ?, thumbnail_url = ? WHERE id = ? AND image_url = ?",
+            updates);
+        int updated = 0;
+        Set<Long> touchedIds = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            // Drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            if (counts[i] != 0) {
+                updated++;
+                touchedIds.add(kuulutusIds.get(i));
+            }
+        }
+        if (touchedIds.isEmpty()) {
+            return 0;
+        }
+        // New URLs change what clients cached, so the listings' ETags must change too
+        List<Object[]> touched = new ArrayList<>(touchedIds.size());
+        for (Long kuulutusId : touchedIds) {
+            touched.add(new Object[] {kuulutusId});
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE kuulutus SET version = version + 1, updated_at = current_timestamp WHERE id = ?", touched);
+        feedVersionService.bump(namedJdbcTemplate.queryForList(
+            "SELECT DISTINCT category FROM kuulutus WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", touchedIds), String.class));
+        listingCache.evictAll();
+        return updated;
+    }
+
+    // The storage URL embedded in a malformed one; other URLs are returned unchanged
+    private String repair(String url) {
+        if (url == null || url.indexOf(publicUrlPrefix, 1) < 0) {
+            return url;
+        }
+        Matcher matcher = publicUrl.matcher(url);
+        return matcher.find() ? matcher.group() : url;
+    }
+
+    private static final class ImageRow {
+        private final long id;
+        private final long kuulutusId;
+        private final String imageUrl;
+        private final String mediumUrl;
+        private final String thumbnailUrl;
+
+        ImageRow(long id, long kuulutusId, String imageUrl, String mediumUrl, String thumbnailUrl) {
+            this.id = id;
+            this.kuulutusId = kuulutusId;
+            this.imageUrl = imageUrl;
+            this.mediumUrl = mediumUrl;
+            this.thumbnailUrl = thumbnailUrl;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.services;
+
+import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.models.CursorPage;
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.KuulutusSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index kept in memory, for tests and databases without tsvector (H2). Matches
+ * listings containing every query term; title hits weigh more than description hits,
+ * like the A/B weights of the PostgreSQL index.
+ */
+@Service
+@ConditionalOnProperty(name = "listings.search.backend", havingValue = "memory")
+public class InMemoryListingSearchService implements ListingSearchService {
+
+    private static final double TITLE_WEIGHT = 1.0;
+    private static final double DESCRIPTION_WEIGHT = 0.4;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedListing> listings = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (Kuulutus kuulutus : kuulutusRepository.findAll()) {
+            index(kuulutus);
+        }
+    }
+
+    @Override
+    public synchronized void index(Kuulutus kuulutus) {
+        remove(kuulutus.getId());
+
+        Map<String, Double> weights = new HashMap<>();
+        for (String term : tokenize(kuulutus.getTitle())) {
+            weights.merge(term, TITLE_WEIGHT, Double::sum);
+        }
+        for (String term : tokenize(kuulutus.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Double::sum);
+        }
+
+        listings.put(kuulutus.getId(), new IndexedListing(kuulutus.getCategory(), kuulutus.getPrice(), weights));
+        for (String term : weights.keySet()) {
+            postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(kuulutus.getId());
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long id) {
+        IndexedListing previous = listings.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.weights.keySet()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    @Override
+    public CursorPage<KuulutusSummary> search(String query, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                              String cursor, int size) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new CursorPage<>(new ArrayList<>(), null);
+        }
+
+        double afterScore = Double.POSITIVE_INFINITY;
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = PageCursor.decode(cursor, 2);
+            try {
+                afterScore = Double.parseDouble(position[0]);
+                afterId = Long.parseLong(position[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        // Start from the rarest term's posting list and check the rest against each candidate
+        Set<Long> candidates = terms.stream()
+            .map(term -> postings.getOrDefault(term, Set.of()))
+            .min(Comparator.comparingInt(Set::size))
+            .orElse(Set.of());
+
+        List<Hit> hits = new ArrayList<>();
+        for (Long id : candidates) {
+            IndexedListing listing = listings.get(id);
+            if (listing == null || !listing.matches(category, minPrice, maxPrice)) {
+                continue;
+            }
+            double score = listing.score(terms);
+            if (score <= 0) {
+                continue;
+            }
+            if (score < afterScore || (score == afterScore && id < afterId)) {
+                hits.add(new Hit(id, score));
+            }
+        }
+        hits.sort(Comparator.comparingDouble((Hit hit) -> hit.score).reversed()
+            .thenComparing((Hit hit) -> hit.id, Comparator.reverseOrder()));
+
+        CursorPage<Hit> page = PageCursor.page(hits.subList(0, Math.min(hits.size(), size + 1)), size,
+            hit -> PageCursor.encode(hit.score, hit.id));
+        List<Long> ids = page.getItems().stream().map(hit -> hit.id).collect(Collectors.toList());
+
+        Map<Long, KuulutusSummary> summaries = ids.isEmpty() ? Map.of()
+            : kuulutusRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(KuulutusSummary::getId, Function.identity()));
+        List<KuulutusSummary> items = new ArrayList<>();
+        for (Long id : ids) {
+            KuulutusSummary summary = summaries.get(id);
+            if (summary != null) {
+                items.add(summary);
+            }
+        }
+        return new CursorPage<>(items, page.getNextCursor());
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        Set<String> seen = new HashSet<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && seen.add(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private static final class IndexedListing {
+        private final String category;
+        private final BigDecimal price;
+        private final Map<String, Double> weights;
+
+        IndexedListing(String category, BigDecimal price, Map<String, Double> weights) {
+            this.category = category;
+            this.price = price;
+            this.weights = weights;
+        }
+
+        boolean matches(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+            if (category != null && !category.equals(this.category)) return false;
+            if (minPrice != null && price.compareTo(minPrice) < 0) return false;
+            if (maxPrice != null && price.compareTo(maxPrice) > 0) return false;
+            return true;
+        }
+
+        // Zero unless every term occurs
+        double score(List<String> terms) {
+            double score = 0;
+            for (String term : terms) {
+                Double weight = weights.get(term);
+                if (weight == null) {
+                    return 0;
+                }
+                score += weight;
+            }
+            return score;
+        }
+    }
+
+    private static final class Hit {
+        private final Long id;
+        private final double score;
+
+        Hit(Long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.services;
+
+import com.example.demo.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Issues and verifies the HS512 tokens handed out at sign-in. A verified token is remembered
+ * with its subject, so a client sending the same token on every request pays for signature
+ * verification once. Only tokens that passed verification are cached.
+ */
+@Service
+public class JwtService {
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${jwt.expiration:P7D}")
+    private Duration expiration;
+
+    @Value("${jwt.cache.max-tokens:10000}")
+    private long maxCachedTokens;
+
+    @Value("${jwt.cache.ttl:PT15M}")
+    private Duration cacheTtl;
+
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(maxCachedTokens)
+            .expireAfterWrite(cacheTtl)
+            .build();
+    }
+
+    public String generateToken(User user) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setSubject(user.getEmail())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(expiration)))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+    }
+
+    /**
+     * Returns the token's subject (the user's email), or empty if the token is invalid or expired.
+     */
+    public Optional<String> verify(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached == null) {
+            try {
+                Claims claims = Jwts.parser()
+                        .setSigningKey(jwtSecret)
+                        .parseClaimsJws(token)
+                        .getBody();
+                Date expiresAt = claims.getExpiration();
+                cached = new VerifiedToken(claims.getSubject(), expiresAt != null ? expiresAt.toInstant() : null);
+            } catch (JwtException | IllegalArgumentException e) {
+                return Optional.empty();
+            }
+            verifiedTokens.put(token, cached);
+        }
+        // A cached token can expire before its cache entry does
+        if (cached.expiresAt != null && !Instant.now().isBefore(cached.expiresAt)) {
+            verifiedTokens.invalidate(token);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cached.subject);
+    }
+
+    private static final class VerifiedToken {
+        private final String subject;
+        private final Instant expiresAt;
+
+        VerifiedToken(String subject, Instant expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.services;
+
+import com.example.demo.Repository.KuulutusImageRepository;
+import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.models.KuulutusExportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams listings as NDJSON (one JSON object per line), oldest change first. Rows come
+ * from a server-side cursor and are written in chunks, so memory use does not depend on
+ * the table size.
+ */
+@Service
+public class KuulutusExportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    @Autowired
+    private KuulutusImageRepository kuulutusImageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${listings.export.overlap:PT5M}")
+    private Duration overlap;
+
+    /**
+     * Writes every listing changed at or after {@code updatedSince} (all listings when null).
+     * Incremental consumers pass the largest updatedAt they have seen and upsert rows by id.
+     * updatedAt is stamped before its transaction commits, so a write that commits after an
+     * export may carry a timestamp older than that export's newest row. Rows within
+     * {@code listings.export.overlap} before the cursor are therefore sent again; the overlap
+     * must exceed the longest listing write transaction plus any clock skew between nodes.
+     */
+    @Transactional(readOnly = true)
+    public void exportNdjson(Instant updatedSince, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(KuulutusExportRow.class);
+        Instant since = updatedSince != null ? updatedSince.minus(overlap) : Instant.EPOCH;
+
+        try (Stream<KuulutusExportRow> rows = kuulutusRepository.streamExportRows(since)) {
+            Iterator<KuulutusExportRow> iterator = rows.iterator();
+            List<KuulutusExportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, writer, out);
+                }
+            }
+            writeChunk(chunk, writer, out);
+        }
+    }
+
+    private void writeChunk(List<KuulutusExportRow> chunk, ObjectWriter writer, OutputStream out) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<Long, KuulutusExportRow> byId = new LinkedHashMap<>();
+        for (KuulutusExportRow row : chunk) {
+            byId.put(row.getId(), row);
+        }
+        for (Object[] image : kuulutusImageRepository.findImageUrlsByKuulutusIdIn(byId.keySet())) {
+            byId.get((Long) image[0]).getImageUrls().add((String) image[1]);
+        }
+
+        for (KuulutusExportRow row : chunk) {
+            out.write(writer.writeValueAsBytes(row));
+            out.write('\n');
+        }
+        out.flush();
+        chunk.clear();
+    }
+}
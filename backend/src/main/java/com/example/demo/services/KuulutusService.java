@@ -1,10 +1,49 @@
 package com.example.demo.services;
 
+import com.example.demo.Repository.KuulutusImageRepository;
 import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.Repository.LikedRepository;
+import com.example.demo.models.CursorPage;
+import com.example.demo.models.FeedPage;
 import com.example.demo.models.Kuulutus;
+import com.example.demo.models.KuulutusImage;
+import com.example.demo.models.KuulutusSummary;
+import com.example.demo.models.Liked;
+import com.example.demo.models.ListingFilter;
+import com.example.demo.models.ListingSort;
+import com.example.demo.models.ListingVersion;
+import com.example.demo.models.StoredImage;
 import com.example.demo.models.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.demo.Repository.KuulutusSpecifications.after;
+import static com.example.demo.Repository.KuulutusSpecifications.inCategories;
+import static com.example.demo.Repository.KuulutusSpecifications.priceAtLeast;
+import static com.example.demo.Repository.KuulutusSpecifications.priceAtMost;
+import static com.example.demo.Repository.KuulutusSpecifications.soldBy;
 
 @Service
 public class KuulutusService {
@@ -12,20 +51,316 @@ public class KuulutusService {
     @Autowired
     private KuulutusRepository kuulutusRepository;
 
+    @Autowired
+    private KuulutusImageRepository kuulutusImageRepository;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private StorageDeletionQueue storageDeletionQueue;
+
+    @Autowired
+    private ListingCache listingCache;
+
+    @Autowired
+    private ListingSearchService listingSearchService;
+
+    @Autowired
+    private LikeCounterService likeCounterService;
+
+    @Autowired
+    private LikedRepository likedRepository;
+
+    @Autowired
+    private FeedVersionService feedVersionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${listings.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${listings.page-size.max:100}")
+    private int maxPageSize;
+
+    private TransactionTemplate feedSnapshot;
+
+    @PostConstruct
+    void init() {
+        feedSnapshot = new TransactionTemplate(transactionManager);
+        feedSnapshot.setReadOnly(true);
+        feedSnapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Transactional
     public Kuulutus createKuulutus(Kuulutus kuulutus, String userEmail) {
         User user = userService.findByEmail(userEmail);
         if (user == null) {
             throw new RuntimeException("User not found");
         }
         kuulutus.setUser(user);
-        return kuulutusRepository.save(kuulutus);
+        Kuulutus savedKuulutus = kuulutusRepository.save(kuulutus);
+        feedVersionService.bump(List.of(savedKuulutus.getCategory()));
+        listingCache.evictListing(savedKuulutus.getId(), savedKuulutus.getCategory());
+        listingSearchService.index(savedKuulutus);
+        return savedKuulutus;
+    }
+
+    /**
+     * Saves a new listing together with its already uploaded images in one transaction.
+     * Ids come from pooled sequences, so nothing is written until commit, when the listing
+     * and all image rows are flushed as JDBC batches.
+     */
+    @Transactional
+    public Kuulutus createKuulutus(Kuulutus kuulutus, List<StoredImage> storedImages) {
+        Kuulutus savedKuulutus = kuulutusRepository.save(kuulutus);
+        List<KuulutusImage> images = new ArrayList<>(storedImages.size());
+        for (StoredImage storedImage : storedImages) {
+            images.add(new KuulutusImage(savedKuulutus, storedImage));
+        }
+        kuulutusImageRepository.saveAll(images);
+        feedVersionService.bump(List.of(savedKuulutus.getCategory()));
+        listingCache.evictListing(savedKuulutus.getId(), savedKuulutus.getCategory());
+        listingSearchService.index(savedKuulutus);
+        return savedKuulutus;
     }
 
     public Kuulutus getKuulutus(Long id) {
-        return kuulutusRepository.findById(id)
+        return findKuulutus(id)
             .orElseThrow(() -> new RuntimeException("Kuulutus not found"));
     }
-} 
\ No newline at end of file
+
+    public Optional<Kuulutus> findKuulutus(Long id) {
+        return listingCache.getListing(id, kuulutusRepository::findDetailsById);
+    }
+
+    /**
+     * Applies the non-null fields to a listing. A new image replaces the old ones, which
+     * are queued for removal from storage in the same transaction. With an expected version
+     * the update only succeeds if nobody changed the listing since that version; concurrent
+     * updates are caught by the version check at flush either way. Both cases throw
+     * ObjectOptimisticLockingFailureException.
+     */
+    @Transactional
+    public Kuulutus updateKuulutus(Long id, Long userId, Long expectedVersion, String title, BigDecimal price,
+                                   String category, String description, StoredImage newImage) {
+        Kuulutus kuulutus = kuulutusRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Listing not found"));
+
+        if (kuulutus.getUser() == null || kuulutus.getUser().getId().longValue() != userId) {
+            throw new RuntimeException("Not authorized to update this listing");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(kuulutus.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Kuulutus.class, id);
+        }
+
+        String oldCategory = kuulutus.getCategory();
+        if (title != null) kuulutus.setTitle(title);
+        if (price != null) kuulutus.setPrice(price);
+        if (category != null) kuulutus.setCategory(category);
+        if (description != null) kuulutus.setDescription(description);
+
+        if (newImage != null) {
+            storageDeletionQueue.enqueue(storedFileUrls(kuulutus));
+            kuulutusImageRepository.deleteByKuulutusId(id);
+            kuulutusImageRepository.save(new KuulutusImage(kuulutus, newImage));
+            // Image rows live in their own table; touch the listing so its version and updatedAt (the ETags) move
+            kuulutus.setUpdatedAt(Instant.now());
+        }
+
+        // Flush here so a lost version check surfaces as a translated exception from this call
+        Kuulutus updatedKuulutus = kuulutusRepository.saveAndFlush(kuulutus);
+        if (newImage != null) {
+            // Image rows are written through KuulutusImage; reload so imageUrls shows the new set
+            entityManager.refresh(updatedKuulutus);
+        }
+        feedVersionService.bump(Arrays.asList(oldCategory, updatedKuulutus.getCategory()));
+        listingCache.evictListing(id, oldCategory, updatedKuulutus.getCategory());
+        listingSearchService.index(updatedKuulutus);
+        return updatedKuulutus;
+    }
+
+    /**
+     * Deletes a listing and queues its images for removal from storage. Both happen in one
+     * transaction, so an image is only removed once the listing is really gone.
+     */
+    @Transactional
+    public void deleteKuulutus(Long id, Long userId) {
+        Kuulutus kuulutus = kuulutusRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Listing not found"));
+
+        if (kuulutus.getUser() == null || kuulutus.getUser().getId().longValue() != userId) {
+            throw new RuntimeException("Not authorized to delete this listing");
+        }
+
+        storageDeletionQueue.enqueue(storedFileUrls(kuulutus));
+        kuulutusRepository.delete(kuulutus);
+        feedVersionService.bump(List.of(kuulutus.getCategory()));
+        listingCache.evictListing(id, kuulutus.getCategory());
+        listingSearchService.remove(id);
+    }
+
+    /**
+     * Current version of a feed, the weak ETag of all its pages; a null or "All" category
+     * means every category.
+     */
+    public long getFeedVersion(String category) {
+        return feedVersionService.current(category);
+    }
+
+    /**
+     * Returns one page of the listing feed, newest first, with the feed version it was read
+     * at. Pass the version the caller already looked up; a cached page of that version is
+     * served without touching kuulutus. A null or "All" category means every category.
+     */
+    public FeedPage getFeedPage(String category, long knownVersion, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Long afterId = PageCursor.decodeId(cursor);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        // Version and rows come from one snapshot, so the page always matches its version;
+        // like counts are taken as stored, since a like count flush bumps the version too
+        return listingCache.getFeedPage(category, knownVersion, cursor, pageSize, () -> feedSnapshot.execute(status -> {
+            long version = feedVersionService.current(category);
+            List<KuulutusSummary> rows;
+            if (category == null || category.equalsIgnoreCase(ListingCache.ALL_CATEGORIES)) {
+                rows = kuulutusRepository.findSummaryPage(afterId, limit);
+            } else {
+                rows = kuulutusRepository.findSummaryPageByCategory(category, afterId, limit);
+            }
+            return new FeedPage(version, PageCursor.page(rows, pageSize, k -> PageCursor.encode(k.getId())));
+        }));
+    }
+
+    /**
+     * Ranked full-text search; a null or "All" category means every category.
+     */
+    public CursorPage<KuulutusSummary> searchListings(String query, String category, BigDecimal minPrice,
+                                                      BigDecimal maxPrice, String cursor, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        String categoryFilter = category == null || category.equalsIgnoreCase(ListingCache.ALL_CATEGORIES)
+            ? null : category;
+        return likeCounterService.withCurrentCounts(
+            listingSearchService.search(query, categoryFilter, minPrice, maxPrice, cursor, resolvePageSize(size)));
+    }
+
+    /**
+     * Filters listings by any combination of categories, price range and seller. The filter
+     * query selects only ids (served by the composite indexes on kuulutus); summaries are
+     * then loaded for that one page.
+     */
+    public CursorPage<KuulutusSummary> filterListings(ListingFilter filter, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        ListingSort sort = ListingSort.fromParam(filter.getSort());
+
+        BigDecimal afterPrice = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                if (sort == ListingSort.NEWEST) {
+                    afterId = Long.valueOf(PageCursor.decode(cursor, 1)[0]);
+                } else {
+                    String[] parts = PageCursor.decode(cursor, 2);
+                    afterPrice = new BigDecimal(parts[0]);
+                    afterId = Long.valueOf(parts[1]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        Specification<Kuulutus> specification = Specification.where(inCategories(filter.getCategories()))
+            .and(priceAtLeast(filter.getMinPrice()))
+            .and(priceAtMost(filter.getMaxPrice()))
+            .and(soldBy(filter.getSellerId()))
+            .and(after(sort, afterPrice, afterId));
+
+        List<Long> ids = kuulutusRepository.findIds(specification, sort.getSort(), pageSize + 1);
+        List<KuulutusSummary> rows = summariesInOrder(ids);
+
+        CursorPage<KuulutusSummary> page = PageCursor.page(rows, pageSize, k -> sort == ListingSort.NEWEST
+            ? PageCursor.encode(k.getId())
+            : PageCursor.encode(k.getPrice().toPlainString(), k.getId()));
+        return likeCounterService.withCurrentCounts(page);
+    }
+
+    /**
+     * A user's liked listings, most recently liked first. The page is cut on liked rows, so
+     * a page can come back short when a liked listing has since been deleted.
+     */
+    public CursorPage<KuulutusSummary> getLikedPage(Long userId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Liked> likes;
+        if (cursor == null || cursor.isEmpty()) {
+            likes = likedRepository.findFirstLikedPage(userId, limit);
+        } else {
+            String[] position = PageCursor.decode(cursor, 2);
+            try {
+                likes = likedRepository.findLikedPageAfter(
+                    userId, Instant.parse(position[0]), Long.valueOf(position[1]), limit);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        CursorPage<Liked> likePage = PageCursor.page(likes, pageSize,
+            l -> PageCursor.encode(l.getLikedAt(), l.getId()));
+        List<Long> ids = likePage.getItems().stream().map(Liked::getKuulutusId).toList();
+        List<KuulutusSummary> items = summariesInOrder(ids);
+        return likeCounterService.withCurrentCounts(new CursorPage<>(items, likePage.getNextCursor()));
+    }
+
+    /**
+     * Current strong ETag of a listing, from one primary key lookup; empty if it does not exist.
+     */
+    public Optional<String> getListingETag(Long id) {
+        return kuulutusRepository.findVersionById(id).map(ListingVersion::eTag);
+    }
+
+    public Optional<Long> getLikeCount(Long id) {
+        return likeCounterService.getLikeCount(id);
+    }
+
+    // Summaries for the given ids in that order; ids of deleted listings are skipped
+    private List<KuulutusSummary> summariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, KuulutusSummary> summaries = kuulutusRepository.findSummariesByIdIn(ids).stream()
+            .collect(Collectors.toMap(KuulutusSummary::getId, Function.identity()));
+        List<KuulutusSummary> rows = new ArrayList<>();
+        for (Long id : ids) {
+            KuulutusSummary summary = summaries.get(id);
+            if (summary != null) {
+                rows.add(summary);
+            }
+        }
+        return rows;
+    }
+
+    // Every stored object behind a listing's images, including thumbnail and medium variants
+    private List<String> storedFileUrls(Kuulutus kuulutus) {
+        List<String> urls = new ArrayList<>();
+        for (KuulutusImage image : kuulutusImageRepository.findByKuulutusId(kuulutus.getId())) {
+            urls.add(image.getImageUrl());
+            if (image.getMediumUrl() != null) urls.add(image.getMediumUrl());
+            if (image.getThumbnailUrl() != null) urls.add(image.getThumbnailUrl());
+        }
+        return urls;
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.services;
+
+import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.models.CursorPage;
+import com.example.demo.models.KuulutusSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps kuulutus.like_count without touching the row on every like. Likes and unlikes add to
+ * a per-listing LongAdder; a scheduled flush writes the accumulated deltas as one batched
+ * UPDATE. Reads add the not-yet-flushed delta, so counts stay near-real-time.
+ */
+@Service
+public class LikeCounterService {
+
+    // like_count is part of the export rows, so a flush moves updated_at like any other change
+    private static final String UPDATE_SQL =
+        "UPDATE kuulutus SET like_count = like_count + ?, updated_at = current_timestamp WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    @Autowired
+    private ListingCache listingCache;
+
+    @Autowired
+    private FeedVersionService feedVersionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Cached feed pages must outlive no entry here, so both share the listing cache bounds
+    @Value("${listings.cache.max-listings:10000}")
+    private long maxFlushedCounts;
+
+    @Value("${listings.cache.ttl:PT5M}")
+    private Duration flushedCountsTtl;
+
+    // Entries are never removed: removing one could drop an increment racing with the flush
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // like_count as written by the latest flush; corrects summaries cached before that flush
+    private Cache<Long, Long> flushedCounts;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flushedCounts = Caffeine.newBuilder()
+            .maximumSize(maxFlushedCounts)
+            .expireAfterWrite(flushedCountsTtl)
+            .build();
+    }
+
+    public void increment(Long kuulutusId) {
+        afterCommit(() -> pending.computeIfAbsent(kuulutusId, id -> new LongAdder()).increment());
+    }
+
+    public void decrement(Long kuulutusId) {
+        afterCommit(() -> pending.computeIfAbsent(kuulutusId, id -> new LongAdder()).decrement());
+    }
+
+    public Optional<Long> getLikeCount(Long kuulutusId) {
+        Long flushed = flushedCounts.getIfPresent(kuulutusId);
+        Optional<Long> stored = flushed != null ? Optional.of(flushed) : kuulutusRepository.findLikeCountById(kuulutusId);
+        return stored.map(count -> count + pendingDelta(kuulutusId));
+    }
+
+    /**
+     * Returns the page with current like counts. Summaries are copied, never modified, since
+     * the page may be shared through ListingCache.
+     */
+    public CursorPage<KuulutusSummary> withCurrentCounts(CursorPage<KuulutusSummary> page) {
+        List<KuulutusSummary> items = new ArrayList<>(page.getItems().size());
+        for (KuulutusSummary summary : page.getItems()) {
+            Long flushed = flushedCounts.getIfPresent(summary.getId());
+            long count = (flushed != null ? flushed : summary.getLikeCount()) + pendingDelta(summary.getId());
+            items.add(count == summary.getLikeCount() ? summary : summary.withLikeCount(count));
+        }
+        return new CursorPage<>(items, page.getNextCursor());
+    }
+
+    @Scheduled(fixedDelayString = "${likes.counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                batch.add(new Object[] {delta, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Object[] row : batch) {
+            ids.add((Long) row[1]);
+        }
+        MapSqlParameterSource idParams = new MapSqlParameterSource("ids", ids);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+                // Feed pages show like counts, so their versions move with the counts
+                feedVersionService.bump(namedJdbcTemplate.queryForList(
+                    "SELECT DISTINCT category FROM kuulutus WHERE id IN (:ids)", idParams, String.class));
+            });
+        } catch (RuntimeException e) {
+            // Keep the deltas for the next flush
+            for (Object[] row : batch) {
+                pending.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+            throw e;
+        }
+
+        namedJdbcTemplate.query("SELECT id, like_count FROM kuulutus WHERE id IN (:ids)", idParams,
+            rs -> {
+                flushedCounts.put(rs.getLong("id"), rs.getLong("like_count"));
+            });
+        listingCache.evictListingDetails(ids);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private long pendingDelta(Long kuulutusId) {
+        LongAdder adder = pending.get(kuulutusId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    // A rolled-back like must not be counted
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.services;
+
+import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.Repository.LikedRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Likes are idempotent: repeating a like or an unlike is a no-op, and concurrent
+ * requests for the same pair cannot create duplicates.
+ */
+@Service
+public class LikeService {
+
+    @Autowired
+    private LikedRepository likedRepository;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    @Autowired
+    private LikeCounterService likeCounterService;
+
+    @Autowired
+    private LikedIdsCache likedIdsCache;
+
+    /**
+     * @return true if a new like was stored, false if it already existed
+     */
+    @Transactional
+    public boolean like(Long userId, Long kuulutusId) {
+        if (userId == null || kuulutusId == null) {
+            throw new RuntimeException("userId and kuulutusId are required");
+        }
+        if (!kuulutusRepository.existsById(kuulutusId)) {
+            throw new RuntimeException("Kuulutus not found");
+        }
+        boolean created = likedRepository.insertIfAbsent(userId, kuulutusId) > 0;
+        if (created) {
+            likeCounterService.increment(kuulutusId);
+            likedIdsCache.added(userId, kuulutusId);
+        }
+        return created;
+    }
+
+    /**
+     * @return true if a like was removed, false if there was none
+     */
+    @Transactional
+    public boolean unlike(Long userId, Long kuulutusId) {
+        boolean removed = likedRepository.deleteByKey(userId, kuulutusId) > 0;
+        if (removed) {
+            likeCounterService.decrement(kuulutusId);
+            likedIdsCache.removed(userId, kuulutusId);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns which of the given listings the user has liked, in the order given.
+     */
+    public List<Long> findLikedIds(Long userId, Collection<Long> kuulutusIds) {
+        if (kuulutusIds.isEmpty()) {
+            return List.of();
+        }
+        if (!likedIdsCache.isEnabled()) {
+            return likedRepository.findLikedKuulutusIds(userId, kuulutusIds);
+        }
+        Set<Long> liked = likedIdsCache.get(userId, likedRepository::findAllKuulutusIdsByUserId);
+        return kuulutusIds.stream().filter(liked::contains).distinct().toList();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Every listing id a user has liked, for answering "is liked" checks without a query.
+ * Sets are immutable; like and unlike replace a cached set after their transaction commits
+ * and never populate a missing one. Bounded by the total number of cached ids.
+ */
+@Component
+public class LikedIdsCache {
+
+    @Value("${likes.cache.max-ids:1000000}")
+    private long maxIds;
+
+    @Value("${likes.cache.ttl:PT30M}")
+    private Duration ttl;
+
+    private Cache<Long, Set<Long>> likedIds;
+
+    @PostConstruct
+    void init() {
+        likedIds = Caffeine.newBuilder()
+            .maximumWeight(maxIds)
+            .weigher((Long userId, Set<Long> ids) -> ids.size() + 1)
+            // Bounds how long a set can miss likes written by other instances
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    public boolean isEnabled() {
+        return maxIds > 0;
+    }
+
+    public Set<Long> get(Long userId, Function<Long, List<Long>> loader) {
+        return likedIds.get(userId, key -> Set.copyOf(loader.apply(key)));
+    }
+
+    public void added(Long userId, Long kuulutusId) {
+        afterCommit(() -> likedIds.asMap().computeIfPresent(userId, (key, ids) -> {
+            Set<Long> updated = new HashSet<>(ids);
+            updated.add(kuulutusId);
+            return Set.copyOf(updated);
+        }));
+    }
+
+    public void removed(Long userId, Long kuulutusId) {
+        afterCommit(() -> likedIds.asMap().computeIfPresent(userId, (key, ids) -> {
+            Set<Long> updated = new HashSet<>(ids);
+            updated.remove(kuulutusId);
+            return Set.copyOf(updated);
+        }));
+    }
+
+    // A set loaded concurrently with the write either sees the committed row or gets the update here
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
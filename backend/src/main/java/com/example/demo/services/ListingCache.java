@@ -0,0 +1,189 @@
+package com.example.demo.services;
+
+import com.example.demo.models.CursorPage;
+import com.example.demo.models.FeedPage;
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.KuulutusSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read cache in front of KuulutusRepository: single listings by id and feed pages by
+ * category. Writes evict exactly the affected entries once their transaction commits;
+ * size and TTL bounds only cap memory and staleness of anything missed.
+ */
+@Component
+public class ListingCache {
+
+    public static final String ALL_CATEGORIES = "All";
+
+    @Value("${listings.cache.max-listings:10000}")
+    private long maxListings;
+
+    @Value("${listings.cache.max-pages:2000}")
+    private long maxPages;
+
+    @Value("${listings.cache.ttl:PT5M}")
+    private Duration ttl;
+
+    private Cache<Long, Kuulutus> listings;
+    private Cache<FeedPageKey, CursorPage<KuulutusSummary>> feedPages;
+
+    @PostConstruct
+    void init() {
+        listings = Caffeine.newBuilder()
+            .maximumSize(maxListings)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        feedPages = Caffeine.newBuilder()
+            .maximumSize(maxPages)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * The loader must return a fully initialized entity (seller and imageUrls fetched),
+     * since the cached instance outlives the session that loaded it. Missing listings are not cached.
+     */
+    public Optional<Kuulutus> getListing(Long id, Function<Long, Optional<Kuulutus>> loader) {
+        return Optional.ofNullable(listings.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Feed pages are cached per feed version, so a page is never served under a version it
+     * was not read at. On a miss the loader may see a newer version than the caller knew;
+     * the page is cached and returned under the version it was actually read at.
+     */
+    public FeedPage getFeedPage(String category, long version, String cursor, int size, Supplier<FeedPage> loader) {
+        String normalized = normalize(category);
+        String cursorKey = cursor == null || cursor.isEmpty() ? null : cursor;
+        CursorPage<KuulutusSummary> cached = feedPages.getIfPresent(new FeedPageKey(normalized, version, cursorKey, size));
+        if (cached != null) {
+            return new FeedPage(version, cached);
+        }
+        FeedPage loaded = loader.get();
+        feedPages.put(new FeedPageKey(normalized, loaded.getVersion(), cursorKey, size), loaded.getPage());
+        return loaded;
+    }
+
+    /**
+     * Evicts a listing and every cached feed page of the given categories (and of "All").
+     */
+    public void evictListing(Long id, String... categories) {
+        Set<String> affected = new HashSet<>();
+        affected.add(ALL_CATEGORIES);
+        for (String category : categories) {
+            if (category != null) {
+                affected.add(normalize(category));
+            }
+        }
+        afterCommit(() -> {
+            if (id != null) {
+                listings.invalidate(id);
+            }
+            feedPages.asMap().keySet().removeIf(key -> affected.contains(key.category));
+        });
+    }
+
+    /**
+     * Evicts single listings only, leaving feed pages alone (a like count flush bumps the feed
+     * version, which retires their cached pages).
+     */
+    public void evictListingDetails(Collection<Long> ids) {
+        afterCommit(() -> listings.invalidateAll(ids));
+    }
+
+    /**
+     * Evicts everything, for bulk repairs that touch listings across all categories.
+     */
+    public void evictAll() {
+        afterCommit(() -> {
+            listings.invalidateAll();
+            feedPages.invalidateAll();
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("listings", describe(listings.stats(), listings.estimatedSize()));
+        stats.put("feedPages", describe(feedPages.stats(), feedPages.estimatedSize()));
+        return stats;
+    }
+
+    private Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", size);
+        description.put("hitCount", stats.hitCount());
+        description.put("missCount", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictionCount", stats.evictionCount());
+        return description;
+    }
+
+    // Runs after the surrounding transaction commits, so a concurrent read cannot re-cache the old row
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String normalize(String category) {
+        return category == null || category.equalsIgnoreCase(ALL_CATEGORIES) ? ALL_CATEGORIES : category;
+    }
+
+    private static final class FeedPageKey {
+        private final String category;
+        private final long version;
+        private final String cursor;
+        private final int size;
+
+        FeedPageKey(String category, long version, String cursor, int size) {
+            this.category = category;
+            this.version = version;
+            this.cursor = cursor;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FeedPageKey)) return false;
+            FeedPageKey other = (FeedPageKey) o;
+            return size == other.size
+                && version == other.version
+                && category.equals(other.category)
+                && Objects.equals(cursor, other.cursor);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(category, version, cursor, size);
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.KuulutusImage;
+import com.example.demo.models.ListingImportResult;
+import com.example.demo.models.ListingImportRow;
+import com.example.demo.models.StoredImage;
+import com.example.demo.models.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bulk listing import for sellers with many listings. The upload is read row by row and
+ * written in chunks, one transaction per chunk, so neither the file nor the persistence
+ * context is ever held in memory as a whole. The body is only read as fast as chunks
+ * commit, which throttles fast clients through TCP flow control; the number of imports
+ * running at once is capped, and callers over the cap get RejectedExecutionException.
+ */
+@Service
+public class ListingImportService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ListingCache listingCache;
+
+    @Autowired
+    private FeedVersionService feedVersionService;
+
+    @Autowired
+    private ListingSearchService listingSearchService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows per transaction; a multiple of hibernate.jdbc-batch-size keeps the JDBC batches full
+    @Value("${listings.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${listings.import.max-rows:50000}")
+    private int maxRows;
+
+    @Value("${listings.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${listings.import.max-images-per-row:10}")
+    private int maxImagesPerRow;
+
+    @Value("${listings.import.max-concurrent:2}")
+    private int maxConcurrent;
+
+    private Semaphore running;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        running = new Semaphore(maxConcurrent);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Picks the row format from an explicit {@code format} parameter or else the request's
+     * content type.
+     */
+    public static String resolveFormat(String format, String contentType) {
+        String value = (format != null ? format : contentType != null ? contentType : "").toLowerCase(Locale.ROOT);
+        if (value.contains("csv")) {
+            return CSV;
+        }
+        if (value.contains("json")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Send text/csv or application/x-ndjson, or pass format=csv|ndjson");
+    }
+
+    /**
+     * Imports every valid row for the given seller. Invalid rows are skipped and reported by
+     * line number; chunks already committed stay committed if a later chunk fails.
+     */
+    public ListingImportResult importListings(Integer userId, String format, InputStream body) throws IOException {
+        if (!running.tryAcquire()) {
+            throw new RejectedExecutionException("Too many imports in progress");
+        }
+        try {
+            User user = userService.findById(userId);
+            if (user == null) {
+                throw new RuntimeException("User not found");
+            }
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            RowReader rows = NDJSON.equals(format) ? new NdjsonRowReader(reader) : new CsvRowReader(reader);
+            ListingImportResult result = new ListingImportResult();
+            List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+            ParsedRow parsed;
+            while ((parsed = rows.next()) != null) {
+                if (result.getReceived() == maxRows) {
+                    result.addError(parsed.line, "More than " + maxRows + " rows; the rest of the file was not imported",
+                        maxErrors);
+                    break;
+                }
+                result.addReceived();
+                String error = parsed.error != null ? parsed.error : validate(parsed.row);
+                if (error != null) {
+                    result.addError(parsed.line, error, maxErrors);
+                    continue;
+                }
+                chunk.add(parsed);
+                if (chunk.size() == chunkSize) {
+                    insertChunk(user.getId(), chunk, result);
+                    chunk.clear();
+                }
+            }
+            insertChunk(user.getId(), chunk, result);
+            return result;
+        } finally {
+            running.release();
+        }
+    }
+
+    private void insertChunk(Integer userId, List<ParsedRow> chunk, ListingImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(userId, chunk));
+            result.addImported(chunk.size());
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            // Rows passed validation, so this is rare: retry one row per transaction to find the culprits
+            for (ParsedRow row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(userId, List.of(row)));
+                    result.addImported(1);
+                } catch (DataAccessException | TransactionException | PersistenceException rowError) {
+                    result.addError(row.line, "Could not be saved: " + rootMessage(rowError), maxErrors);
+                }
+            }
+        }
+    }
+
+    private void persist(Integer userId, List<ParsedRow> rows) {
+        User seller = entityManager.getReference(User.class, userId);
+        List<Kuulutus> saved = new ArrayList<>(rows.size());
+        Set<String> categories = new HashSet<>();
+
+        for (ParsedRow parsed : rows) {
+            ListingImportRow row = parsed.row;
+            Kuulutus kuulutus = new Kuulutus();
+            kuulutus.setTitle(row.getTitle().trim());
+            kuulutus.setPrice(row.getPrice());
+            kuulutus.setCategory(row.getCategory().trim());
+            kuulutus.setDescription(row.getDescription());
+            kuulutus.setUser(seller);
+            entityManager.persist(kuulutus);
+            for (String url : row.getImageUrls()) {
+                entityManager.persist(new KuulutusImage(kuulutus, new StoredImage(url, null, null)));
+            }
+            saved.add(kuulutus);
+            categories.add(kuulutus.getCategory());
+        }
+
+        // Sequence ids are pooled, so the flush sends the chunk as a few JDBC batches
+        entityManager.flush();
+        entityManager.clear();
+
+        feedVersionService.bump(categories);
+        listingCache.evictListing(null, categories.toArray(new String[0]));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                saved.forEach(listingSearchService::index);
+            }
+        });
+    }
+
+    private String validate(ListingImportRow row) {
+        String error = validateText("title", row.getTitle());
+        if (error == null) {
+            error = validateText("category", row.getCategory());
+        }
+        if (error != null) {
+            return error;
+        }
+        if (row.getPrice() == null) {
+            return "price is required";
+        }
+        if (row.getPrice().signum() < 0) {
+            return "price must not be negative";
+        }
+        if (row.getImageUrls().size() > maxImagesPerRow) {
+            return "At most " + maxImagesPerRow + " images per listing";
+        }
+        // Image files are deleted with their listing, so only files in our storage may be attached
+        for (String url : row.getImageUrls()) {
+            if (url == null || url.length() > MAX_COLUMN_LENGTH || !storageService.isStoredUrl(url)) {
+                return "Image URL must be an uploaded file: " + url;
+            }
+        }
+        return null;
+    }
+
+    private static String validateText(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return name + " is required";
+        }
+        if (value.trim().length() > MAX_COLUMN_LENGTH) {
+            return name + " is longer than " + MAX_COLUMN_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private interface RowReader {
+        // Null at the end of the input
+        ParsedRow next() throws IOException;
+    }
+
+    private static final class ParsedRow {
+        private final long line;
+        private final ListingImportRow row;
+        private final String error;
+
+        private ParsedRow(long line, ListingImportRow row, String error) {
+            this.line = line;
+            this.row = row;
+            this.error = error;
+        }
+
+        static ParsedRow of(long line, ListingImportRow row) {
+            return new ParsedRow(line, row, null);
+        }
+
+        static ParsedRow failed(long line, String error) {
+            return new ParsedRow(line, null, error);
+        }
+    }
+
+    // One JSON object per line, with the fields of ListingImportRow
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final ObjectReader json = objectMapper.readerFor(ListingImportRow.class);
+        private long line;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    ListingImportRow row = json.readValue(text);
+                    // A literal null line parses without error but has no fields to check
+                    if (row == null) {
+                        return ParsedRow.failed(line, "Invalid row: expected a JSON object");
+                    }
+                    return ParsedRow.of(line, row);
+                } catch (JsonProcessingException e) {
+                    return ParsedRow.failed(line, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the columns: title, price, category and optionally
+     * description and imageUrls (URLs separated by '|' or whitespace). Quoted fields may
+     * contain commas, doubled quotes and line breaks.
+     */
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private Map<String, Integer> columns;
+        private long line;
+        private boolean unterminated;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            if (columns == null) {
+                readHeader();
+            }
+            while (true) {
+                long startLine = line + 1;
+                List<String> fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+                if (unterminated) {
+                    return ParsedRow.failed(startLine, "Unterminated quoted field");
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                return toRow(startLine, fields);
+            }
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV header row is missing");
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace("_", "");
+                columns.put(name, i);
+            }
+            if (!columns.containsKey("title") || !columns.containsKey("price") || !columns.containsKey("category")) {
+                throw new IllegalArgumentException("CSV header must name the title, price and category columns");
+            }
+        }
+
+        private ParsedRow toRow(long startLine, List<String> fields) {
+            ListingImportRow row = new ListingImportRow();
+            row.setTitle(field(fields, "title"));
+            row.setCategory(field(fields, "category"));
+            row.setDescription(field(fields, "description"));
+
+            String price = field(fields, "price");
+            if (price != null && !price.isEmpty()) {
+                try {
+                    row.setPrice(new BigDecimal(price));
+                } catch (NumberFormatException e) {
+                    return ParsedRow.failed(startLine, "price is not a number: " + price);
+                }
+            }
+
+            String imageUrls = field(fields, "imageurls");
+            if (imageUrls != null) {
+                for (String url : imageUrls.split("[|\\s]+")) {
+                    if (!url.isEmpty()) {
+                        row.getImageUrls().add(url);
+                    }
+                }
+            }
+            return ParsedRow.of(startLine, row);
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= fields.size() ? null : fields.get(index).trim();
+        }
+
+        // One record, which spans several lines when a quoted field contains line breaks
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            unterminated = false;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    if (quoted) {
+                        if (c != '"') {
+                            field.append(c);
+                        } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                text = reader.readLine();
+                if (text == null) {
+                    unterminated = true;
+                    break;
+                }
+                line++;
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.services;
+
+import com.example.demo.models.CursorPage;
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.KuulutusSummary;
+
+import java.math.BigDecimal;
+
+/**
+ * Ranked full-text search over listing titles and descriptions. The implementation is
+ * chosen with {@code listings.search.backend}: {@code postgres} (default) or {@code memory}.
+ */
+public interface ListingSearchService {
+
+    /**
+     * Returns one page of matches, best match first. Category and price bounds are optional.
+     */
+    CursorPage<KuulutusSummary> search(String query, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                       String cursor, int size);
+
+    /**
+     * Called after a listing is created or updated. Backends that index in the database ignore it.
+     */
+    default void index(Kuulutus kuulutus) {}
+
+    default void remove(Long id) {}
+}
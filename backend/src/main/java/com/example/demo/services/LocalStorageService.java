@@ -0,0 +1,108 @@
+package com.example.demo.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Stores images on the local disk under {@code upload.path} and serves them through
+ * FileController, so a self-hosted node needs no network hop per image.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalStorageService implements StorageService {
+
+    // Generated names only: no separators, no leading dot, so a name can never escape the root
+    private static final Pattern SAFE_FILENAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    @Value("${upload.path:/uploads}")
+    private String uploadPath;
+
+    @Value("${storage.local.public-url:http://localhost:8080/api/files}")
+    private String publicUrl;
+
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadAsync(Path file, String filename, String contentType) {
+        try {
+            Path target = resolve(filename)
+                .orElseThrow(() -> new IOException("Invalid filename: " + filename));
+            // Write next to the target and rename, so readers never see a half-written file
+            Path partial = Files.createTempFile(root, ".upload-", ".part");
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += out.transferFrom(in, position, size - position);
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(partial);
+                throw e;
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return CompletableFuture.completedFuture(publicUrl + "/" + filename);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void deleteFile(String fileUrl) throws IOException {
+        // Deletion goes by file name alone, so a foreign URL could name another listing's file
+        if (!isStoredUrl(fileUrl)) {
+            return;
+        }
+        Optional<Path> path = resolve(filenameOf(fileUrl));
+        if (path.isPresent()) {
+            Files.deleteIfExists(path.get());
+        }
+    }
+
+    @Override
+    public void deleteFiles(List<String> fileUrls) throws IOException {
+        for (String fileUrl : fileUrls) {
+            deleteFile(fileUrl);
+        }
+    }
+
+    @Override
+    public boolean isStoredUrl(String fileUrl) {
+        String prefix = publicUrl + "/";
+        return fileUrl != null && fileUrl.startsWith(prefix) && resolve(fileUrl.substring(prefix.length())).isPresent();
+    }
+
+    /**
+     * Maps a stored filename to its path on disk, or empty if the name is not one we could have written.
+     */
+    public Optional<Path> resolve(String filename) {
+        if (filename == null || !SAFE_FILENAME.matcher(filename).matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(root.resolve(filename));
+    }
+
+    private String filenameOf(String fileUrl) {
+        return fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+    }
+}
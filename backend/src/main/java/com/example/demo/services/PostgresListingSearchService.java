@@ -0,0 +1,92 @@
+package com.example.demo.services;
+
+import com.example.demo.models.CursorPage;
+import com.example.demo.models.KuulutusSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Searches the generated {@code kuulutus.search_vector} column (see db/postgres/001-listing-search.sql)
+ * through its GIN index and orders by ts_rank. Pages are keyed on (rank, id).
+ */
+@Service
+@ConditionalOnProperty(name = "listings.search.backend", havingValue = "postgres", matchIfMissing = true)
+public class PostgresListingSearchService implements ListingSearchService {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public CursorPage<KuulutusSummary> search(String query, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                              String cursor, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("query", query)
+            .addValue("limit", size + 1);
+
+        StringBuilder sql = new StringBuilder()
+            .append("SELECT k.id, k.title, k.price, k.category, fi.image_url, ")
+            .append("COALESCE(fi.thumbnail_url, fi.image_url) AS thumbnail_url, u.nimi, k.like_count, r.rank ")
+            .append("FROM kuulutus k ")
+            .append("CROSS JOIN LATERAL (SELECT ts_rank(k.search_vector, websearch_to_tsquery('simple', :query)) AS rank) r ")
+            .append("LEFT JOIN users u ON u.id = k.user_id ")
+            .append("LEFT JOIN LATERAL (SELECT i.image_url, i.thumbnail_url FROM kuulutus_images i ")
+            .append("WHERE i.kuulutus_id = k.id ORDER BY i.id LIMIT 1) fi ON true ")
+            .append("WHERE k.search_vector @@ websearch_to_tsquery('simple', :query) ");
+
+        if (category != null) {
+            sql.append("AND k.category = :category ");
+            params.addValue("category", category);
+        }
+        if (minPrice != null) {
+            sql.append("AND k.price >= :minPrice ");
+            params.addValue("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            sql.append("AND k.price <= :maxPrice ");
+            params.addValue("maxPrice", maxPrice);
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = PageCursor.decode(cursor, 2);
+            sql.append("AND (r.rank < :afterRank OR (r.rank = :afterRank AND k.id < :afterId)) ");
+            try {
+                params.addValue("afterRank", Float.parseFloat(position[0]));
+                params.addValue("afterId", Long.parseLong(position[1]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+        sql.append("ORDER BY r.rank DESC, k.id DESC LIMIT :limit");
+
+        List<RankedSummary> rows = jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new RankedSummary(
+            new KuulutusSummary(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getBigDecimal("price"),
+                rs.getString("category"),
+                rs.getString("image_url"),
+                rs.getString("thumbnail_url"),
+                rs.getString("nimi"),
+                rs.getLong("like_count")),
+            rs.getFloat("rank")));
+
+        CursorPage<RankedSummary> page = PageCursor.page(rows, size,
+            row -> PageCursor.encode(row.rank, row.summary.getId()));
+        return new CursorPage<>(page.getItems().stream().map(row -> row.summary).toList(), page.getNextCursor());
+    }
+
+    private static final class RankedSummary {
+        private final KuulutusSummary summary;
+        private final float rank;
+
+        RankedSummary(KuulutusSummary summary, float rank) {
+            this.summary = summary;
+            this.rank = rank;
+        }
+    }
+}
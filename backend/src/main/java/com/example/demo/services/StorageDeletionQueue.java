@@ -0,0 +1,138 @@
+package com.example.demo.services;
+
+import com.example.demo.Repository.StorageDeletionRepository;
+import com.example.demo.models.StorageDeletion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outbox for object storage deletions. Request threads only insert rows; the actual
+ * removal happens in bulk on a background schedule, with exponential backoff on failure.
+ */
+@Service
+public class StorageDeletionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageDeletionQueue.class);
+
+    @Autowired
+    private StorageDeletionRepository storageDeletionRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${storage.deletion.batch-size:100}")
+    private int batchSize;
+
+    @Value("${storage.deletion.backoff-base:PT30S}")
+    private Duration backoffBase;
+
+    @Value("${storage.deletion.backoff-max:PT1H}")
+    private Duration backoffMax;
+
+    // How long a claimed batch is hidden from other nodes; must exceed the storage call timeout
+    @Value("${storage.deletion.lease:PT5M}")
+    private Duration lease;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void enqueue(Collection<String> fileUrls) {
+        if (fileUrls == null || fileUrls.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<StorageDeletion> deletions = new ArrayList<>();
+        for (String fileUrl : fileUrls) {
+            if (fileUrl != null) {
+                deletions.add(new StorageDeletion(fileUrl, now));
+            }
+        }
+        storageDeletionRepository.saveAll(deletions);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Removes one batch of due files with a single bulk call. Returns how many files were
+     * deleted, or 0 when nothing was due or the batch was rescheduled after a failure.
+     * The storage call runs outside any transaction: the rows are first claimed in a short
+     * transaction that moves next_attempt_at one lease ahead, so other nodes skip them
+     * while the call is in flight, and a crashed node's claim simply expires.
+     */
+    public int processDueBatch() {
+        List<StorageDeletion> due = transactionTemplate.execute(status -> claimDue());
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>();
+        List<String> fileUrls = new ArrayList<>();
+        for (StorageDeletion deletion : due) {
+            ids.add(deletion.getId());
+            fileUrls.add(deletion.getFileUrl());
+        }
+
+        try {
+            storageService.deleteFiles(fileUrls);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete {} stored files, retrying later: {}", due.size(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> reschedule(ids, e));
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> storageDeletionRepository.deleteAllByIdInBatch(ids));
+        return due.size();
+    }
+
+    private List<StorageDeletion> claimDue() {
+        Instant now = Instant.now();
+        List<StorageDeletion> due = storageDeletionRepository.findDue(now, PageRequest.of(0, batchSize));
+        for (StorageDeletion deletion : due) {
+            deletion.setNextAttemptAt(now.plus(lease));
+        }
+        return due;
+    }
+
+    private void reschedule(List<Long> ids, Exception e) {
+        Instant now = Instant.now();
+        for (StorageDeletion deletion : storageDeletionRepository.findAllById(ids)) {
+            deletion.setAttempts(deletion.getAttempts() + 1);
+            deletion.setNextAttemptAt(now.plus(backoff(deletion.getAttempts())));
+            deletion.setLastError(truncate(e.getMessage()));
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= 1024) {
+            return message;
+        }
+        return message.substring(0, 1024);
+    }
+}
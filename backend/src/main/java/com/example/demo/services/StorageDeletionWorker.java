@@ -0,0 +1,21 @@
+package com.example.demo.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StorageDeletionWorker {
+
+    @Autowired
+    private StorageDeletionQueue storageDeletionQueue;
+
+    // Drains full batches back to back, then sleeps until the next tick
+    @Scheduled(fixedDelayString = "${storage.deletion.interval-ms:10000}")
+    public void drain() {
+        int deleted;
+        do {
+            deleted = storageDeletionQueue.processDueBatch();
+        } while (deleted == storageDeletionQueue.getBatchSize());
+    }
+}
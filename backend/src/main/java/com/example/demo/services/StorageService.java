@@ -0,0 +1,35 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Object storage for listing images. The backend is chosen with {@code storage.backend}:
+ * {@code supabase} (default) or {@code local}.
+ */
+public interface StorageService {
+
+    /**
+     * Stores the file under the given name; the future completes with its public URL.
+     */
+    CompletableFuture<String> uploadAsync(Path file, String filename, String contentType);
+
+    /**
+     * Deletes the file behind one of this storage's public URLs. Any other URL is ignored.
+     */
+    void deleteFile(String fileUrl) throws IOException;
+
+    /**
+     * Deletes several files at once. Files that are already gone are not errors; URLs that
+     * are not this storage's public URLs are skipped.
+     */
+    void deleteFiles(List<String> fileUrls) throws IOException;
+
+    /**
+     * Whether the URL is one this storage hands out: its public base URL followed by a
+     * single file name. Only such URLs may be saved with a listing or deleted.
+     */
+    boolean isStoredUrl(String fileUrl);
+}
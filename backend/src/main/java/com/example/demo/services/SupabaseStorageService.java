@@ -1,18 +1,26 @@
 package com.example.demo.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.UUID;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
-public class SupabaseStorageService {
+@ConditionalOnProperty(name = "storage.backend", havingValue = "supabase", matchIfMissing = true)
+public class SupabaseStorageService implements StorageService {
 
     @Value("${supabase.storage.url}")
     private String storageUrl;
@@ -23,53 +31,45 @@ public class SupabaseStorageService {
     @Value("${supabase.key}")
     private String supabaseKey;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private final HttpClient httpClient = HttpClient.newBuilder().build();
 
-  
-    public String uploadFile(MultipartFile file) throws IOException {
+    /**
+     * Uploads a file to Supabase Storage without blocking the caller. The body is streamed
+     * from disk; the future completes with the public URL, or exceptionally on failure.
+     */
+    @Override
+    public CompletableFuture<String> uploadAsync(Path file, String filename, String contentType) {
+        HttpRequest request;
         try {
-            // Generate a unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String filename = UUID.randomUUID().toString() + extension;
-            
-            // Creates the URL for the upload
-            String uploadUrl = String.format("%s/object/%s/%s", storageUrl, bucketName, filename);
-            
-            // Creates the request
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(uploadUrl))
-                    .header("Authorization", "Bearer " + supabaseKey)
-                    .header("Content-Type", file.getContentType())
-                    .PUT(HttpRequest.BodyPublishers.ofByteArray(file.getBytes()))
-                    .build();
-            
-            // Sends the request
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            
-            // Checks if the upload was successful
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                // Return the public URL of the file
-                // Supabase public URL format: https://[project-ref].supabase.co/storage/v1/object/public/[bucket]/[filename]
-                return String.format("https://isgqnyhkexduycwmcjxa.supabase.co/storage/v1/object/public/%s/%s", bucketName, filename);
-            } else {
-                throw new IOException("Failed to upload file to Supabase: " + response.body());
-            }
-        } catch (Exception e) {
-            throw new IOException("Error uploading file to Supabase: " + e.getMessage(), e);
+            request = uploadRequest(filename, contentType, HttpRequest.BodyPublishers.ofFile(file));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
         }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                        throw new CompletionException(
+                                new IOException("Failed to upload file to Supabase: " + response.body()));
+                    }
+                    return publicUrl(filename);
+                });
     }
 
     /**
      * Deletes a file from Supabase Storage
      */
+    @Override
     public void deleteFile(String fileUrl) throws IOException {
+        // Deletion goes by file name alone, so a foreign URL could name another listing's file
+        if (!isStoredUrl(fileUrl)) {
+            return;
+        }
         try {
             // Extracts the filename from the URL
-            String filename = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+            String filename = filenameOf(fileUrl);
             
             // Creates the URL for the delete
             String deleteUrl = String.format("%s/object/%s/%s", storageUrl, bucketName, filename);
@@ -92,4 +92,68 @@ public class SupabaseStorageService {
             throw new IOException("Error deleting file from Supabase: " + e.getMessage(), e);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Deletes several files from Supabase Storage with one bulk request.
+     * Files that are already gone are not treated as errors.
+     */
+    @Override
+    public void deleteFiles(List<String> fileUrls) throws IOException {
+        List<String> filenames = new ArrayList<>();
+        for (String fileUrl : fileUrls) {
+            if (isStoredUrl(fileUrl)) {
+                filenames.add(filenameOf(fileUrl));
+            }
+        }
+        if (filenames.isEmpty()) {
+            return;
+        }
+        try {
+            String body = objectMapper.writeValueAsString(Map.of("prefixes", filenames));
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(String.format("%s/object/%s", storageUrl, bucketName)))
+                    .header("Authorization", "Bearer " + supabaseKey)
+                    .header("Content-Type", "application/json")
+                    .method("DELETE", HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new IOException("Failed to delete files from Supabase: " + response.body());
+            }
+        } catch (Exception e) {
+            throw new IOException("Error deleting files from Supabase: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isStoredUrl(String fileUrl) {
+        String prefix = publicUrl("");
+        if (fileUrl == null || !fileUrl.startsWith(prefix)) {
+            return false;
+        }
+        String filename = fileUrl.substring(prefix.length());
+        return !filename.isEmpty() && !filename.startsWith(".")
+                && filename.chars().noneMatch(c -> "/\\?#".indexOf(c) >= 0);
+    }
+
+    private String filenameOf(String fileUrl) {
+        return fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+    }
+
+    private HttpRequest uploadRequest(String filename, String contentType, HttpRequest.BodyPublisher body) {
+        String uploadUrl = String.format("%s/object/%s/%s", storageUrl, bucketName, filename);
+        return HttpRequest.newBuilder()
+                .uri(URI.create(uploadUrl))
+                .header("Authorization", "Bearer " + supabaseKey)
+                .header("Content-Type", contentType != null ? contentType : "application/octet-stream")
+                .PUT(body)
+                .build();
+    }
+
+    // Supabase public URL format: https://[project-ref].supabase.co/storage/v1/object/public/[bucket]/[filename]
+    private String publicUrl(String filename) {
+        return String.format("https://isgqnyhkexduycwmcjxa.supabase.co/storage/v1/object/public/%s/%s", bucketName, filename);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.services;
+
+import com.example.demo.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read cache of users by email and by id for the profile and sign-in paths. Unknown users
+ * are not cached. Anything that changes a user must call evict; the TTL only bounds
+ * staleness of anything missed.
+ */
+@Component
+public class UserCache {
+
+    @Value("${users.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${users.cache.ttl:PT10M}")
+    private Duration ttl;
+
+    private Cache<String, User> byEmail;
+    private Cache<Integer, User> byId;
+
+    @PostConstruct
+    void init() {
+        byEmail = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        byId = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    public User getByEmail(String email, Function<String, User> loader) {
+        return email == null ? null : byEmail.get(email, loader);
+    }
+
+    public User getById(Integer id, Function<Integer, User> loader) {
+        return id == null ? null : byId.get(id, loader);
+    }
+
+    public void evict(User user) {
+        if (user.getEmail() != null) {
+            byEmail.invalidate(user.getEmail());
+        }
+        if (user.getId() != null) {
+            byId.invalidate(user.getId());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byEmail", describe(byEmail.stats(), byEmail.estimatedSize()));
+        stats.put("byId", describe(byId.stats(), byId.estimatedSize()));
+        return stats;
+    }
+
+    private Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", size);
+        description.put("hitCount", stats.hitCount());
+        description.put("missCount", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictionCount", stats.evictionCount());
+        return description;
+    }
+}
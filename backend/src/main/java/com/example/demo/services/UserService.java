@@ -1,14 +1,27 @@
 package com.example.demo.services;
 
+import com.example.demo.models.CursorPage;
 import com.example.demo.models.User;
+import com.example.demo.models.UserSummary;
 import com.example.demo.models.Kuulutus;
 import com.example.demo.Repository.UserRepository;
 import com.example.demo.Repository.KuulutusRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class UserService {
@@ -20,38 +33,156 @@ public class UserService {
     private KuulutusRepository kuulutusRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
-    public User registerUser(String username, String email, String password) {
-        if (userRepository.findByEmail(email) != null) {
+    @Autowired
+    private UserCache userCache;
+
+    @Value("${users.page-size.default:50}")
+    private int defaultPageSize;
+
+    @Value("${users.page-size.max:200}")
+    private int maxPageSize;
+
+    // Saves after hashing wait on the database, so they get their own pool instead of
+    // holding a thread of the CPU-sized hashing pool
+    @Value("${users.persistence.threads:4}")
+    private int persistenceThreads;
+
+    @Value("${users.persistence.queue-capacity:64}")
+    private int persistenceQueueCapacity;
+
+    private ThreadPoolExecutor persistenceExecutor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        persistenceExecutor = new ThreadPoolExecutor(persistenceThreads, persistenceThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(persistenceQueueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "user-persistence-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        persistenceExecutor.shutdown();
+    }
+
+    /**
+     * The pre-check only saves a hash for the common duplicate; uk_users_email and
+     * uk_users_nimi decide concurrent signups, and their violations get the same messages.
+     * Hashing runs on PasswordHashingService's pool; the save runs on the persistence pool.
+     */
+    public CompletableFuture<User> registerUser(String username, String email, String password) {
+        List<String> taken = userRepository.findTakenFields(email, username);
+        if (taken.contains("email")) {
             throw new RuntimeException("Email already exists");
         }
-        if (userRepository.findByNimi(username) != null) {
+        if (taken.contains("nimi")) {
             throw new RuntimeException("Username already exists");
         }
 
-        User user = new User(username, email, passwordEncoder.encode(password));
-        return userRepository.save(user);
+        return passwordHashingService.encode(password)
+            .thenApplyAsync(hash -> {
+                try {
+                    User user = userRepository.save(new User(username, email, hash));
+                    userCache.evict(user);
+                    return user;
+                } catch (DataIntegrityViolationException e) {
+                    throw new RuntimeException(duplicateMessage(e), e);
+                }
+            }, persistenceExecutor);
     }
 
-    public User authenticateUser(String email, String password) {
-        User user = userRepository.findByEmail(email);
-        if (user != null && passwordEncoder.matches(password, user.getPassword())) {
-            return user;
+    private static String duplicateMessage(DataIntegrityViolationException e) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains("uk_users_email")) {
+            return "Email already exists";
+        }
+        if (detail.contains("uk_users_nimi")) {
+            return "Username already exists";
         }
-        throw new RuntimeException("Invalid email or password");
+        throw e;
+    }
+
+    /**
+     * Verifies the password off the request thread. A hash made with outdated encoder
+     * settings is replaced with a current one on successful sign-in, on the persistence pool.
+     */
+    public CompletableFuture<User> authenticateUser(String email, String password) {
+        User user = findByEmail(email);
+        if (user == null) {
+            throw new RuntimeException("Invalid email or password");
+        }
+        return passwordHashingService.verify(password, user.getPassword())
+            .thenCompose(verification -> {
+                if (!verification.matches()) {
+                    throw new RuntimeException("Invalid email or password");
+                }
+                if (verification.getUpgradedHash() == null) {
+                    return CompletableFuture.completedFuture(user);
+                }
+                return CompletableFuture.supplyAsync(() -> {
+                    // The cached instance is shared, so it is evicted rather than modified
+                    userRepository.updatePassword(user.getId(), user.getPassword(), verification.getUpgradedHash());
+                    userCache.evict(user);
+                    return user;
+                }, persistenceExecutor);
+            });
     }
 
     public User findByEmail(String email) {
-        System.out.println("Searching for user with email: " + email);
-        return userRepository.findByEmail(email);
+        return userCache.getByEmail(email, userRepository::findByEmail);
+    }
+
+    public User findById(Integer id) {
+        return userCache.getById(id, key -> userRepository.findById(key).orElse(null));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return userCache.stats();
     }
 
     public List<Kuulutus> findKuulutusByUserEmail(String userEmail) {
         return kuulutusRepository.findByUserEmail(userEmail);
     }
 
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    /**
+     * One page of users in id order or, when a prefix is given, the users whose name starts
+     * with it (case-insensitive) in name order.
+     */
+    public CursorPage<UserSummary> getUserPage(String prefix, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        boolean firstPage = cursor == null || cursor.isEmpty();
+
+        if (prefix == null || prefix.isBlank()) {
+            int afterId = firstPage ? 0 : Math.toIntExact(PageCursor.decodeId(cursor));
+            List<UserSummary> rows = userRepository.findSummaryPage(afterId, limit);
+            return PageCursor.page(rows, pageSize, u -> PageCursor.encode(u.getId()));
+        }
+
+        String pattern = prefix.trim().toLowerCase(Locale.ROOT)
+            .replace("!", "!!")
+            .replace("%", "!%")
+            .replace("_", "!_") + "%";
+        List<UserSummary> rows;
+        if (firstPage) {
+            rows = userRepository.findFirstSummaryPageByNimiLike(pattern, limit);
+        } else {
+            // Id first: the name is the last part, so it may contain the separator
+            String[] position = PageCursor.decode(cursor, 2);
+            try {
+                rows = userRepository.findSummaryPageByNimiLikeAfter(
+                    pattern, position[1], Integer.valueOf(position[0]), limit);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+        return PageCursor.page(rows, pageSize, u -> PageCursor.encode(u.getId(), u.getNimi()));
     }
-}
\ No newline at end of file
+}
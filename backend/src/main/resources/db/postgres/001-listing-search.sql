@@ -0,0 +1,9 @@
+-- Full-text search over listing title (weight A) and description (weight B).
+-- The 'simple' configuration avoids English stemming, since listings are mostly Estonian.
+ALTER TABLE kuulutus ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_kuulutus_search_vector ON kuulutus USING GIN (search_vector);
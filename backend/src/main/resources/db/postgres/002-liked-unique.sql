@@ -0,0 +1,9 @@
+-- One like per user and listing. Older databases may hold duplicates from double taps;
+-- keep the oldest row of each pair before the unique index is built.
+DELETE FROM liked a
+    USING liked b
+    WHERE a.user_id = b.user_id
+      AND a.kuulutus_id = b.kuulutus_id
+      AND a.id > b.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_liked_user_kuulutus ON liked (user_id, kuulutus_id);
@@ -0,0 +1,23 @@
+-- Scripts that must run only once record themselves here.
+CREATE TABLE IF NOT EXISTS schema_migrations (
+    name varchar(100) PRIMARY KEY,
+    applied_at timestamp NOT NULL DEFAULT now()
+);
+
+-- One-time backfill of kuulutus.like_count from the liked table, for likes made before the
+-- column existed. Once running nodes hold unflushed deltas, a recount would count those likes
+-- twice, so the marker row is claimed in the same statement: only the first start to insert
+-- it backfills, and concurrent starts wait on the primary key and then skip.
+WITH claimed AS (
+    INSERT INTO schema_migrations (name) VALUES ('003-like-count')
+    ON CONFLICT DO NOTHING
+    RETURNING name
+)
+UPDATE kuulutus k
+SET like_count = coalesce(c.likes, 0)
+FROM kuulutus k2
+LEFT JOIN (SELECT kuulutus_id, count(*) AS likes FROM liked GROUP BY kuulutus_id) c
+    ON c.kuulutus_id = k2.id
+WHERE k.id = k2.id
+  AND EXISTS (SELECT 1 FROM claimed)
+  AND k.like_count IS DISTINCT FROM coalesce(c.likes, 0);
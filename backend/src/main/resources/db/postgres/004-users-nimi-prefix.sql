@@ -0,0 +1,3 @@
+-- Case-insensitive name prefix search (lower(nimi) LIKE 'abc%') for /api/users/all.
+-- text_pattern_ops lets LIKE prefixes use the index regardless of the database collation.
+CREATE INDEX IF NOT EXISTS idx_users_nimi_prefix ON users (lower(nimi) text_pattern_ops);
@@ -0,0 +1,14 @@
+-- kuulutus and kuulutus_images ids now come from pooled sequences (allocationSize 50), which
+-- Hibernate creates. Move each sequence past the ids the old serial columns handed out, and make
+-- it the column default so inserts that omit id (the Kuulutus.imageUrls collection) use it too.
+-- A plain nextval value is never inside a block Hibernate hands out, so the two cannot collide.
+SELECT setval('kuulutus_seq', t.max_id + 1)
+FROM (SELECT coalesce(max(id), 0) AS max_id FROM kuulutus) t
+WHERE t.max_id >= (SELECT last_value FROM kuulutus_seq);
+
+SELECT setval('kuulutus_images_seq', t.max_id + 1)
+FROM (SELECT coalesce(max(id), 0) AS max_id FROM kuulutus_images) t
+WHERE t.max_id >= (SELECT last_value FROM kuulutus_images_seq);
+
+ALTER TABLE kuulutus ALTER COLUMN id SET DEFAULT nextval('kuulutus_seq');
+ALTER TABLE kuulutus_images ALTER COLUMN id SET DEFAULT nextval('kuulutus_images_seq');
@@ -0,0 +1,4 @@
+-- Keyset pages of a name prefix search (ORDER BY lower(nimi), id) for /api/users/all.
+-- Unlike idx_users_nimi_prefix, whose text_pattern_ops order differs from the collation order,
+-- this one serves the ORDER BY and the (name, id) cursor, so a page stops after size + 1 rows.
+CREATE INDEX IF NOT EXISTS idx_users_nimi_order ON users (lower(nimi), id);
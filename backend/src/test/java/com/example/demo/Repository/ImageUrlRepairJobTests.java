@@ -0,0 +1,124 @@
+package com.example.demo.Repository;
+
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.KuulutusImage;
+import com.example.demo.models.StoredImage;
+import com.example.demo.models.User;
+import com.example.demo.services.ImageUrlRepairJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @Transactional: the job commits its own chunks on a background thread
+@SpringBootTest
+class ImageUrlRepairJobTests {
+
+    private static final String STORAGE = "https://isgqnyhkexduycwmcjxa.supabase.co/storage/v1/object/public/listings/";
+    private static final String BOGUS = "http://10.0.2.2:8080";
+
+    @Autowired
+    private ImageUrlRepairJob imageUrlRepairJob;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    @Autowired
+    private KuulutusImageRepository kuulutusImageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private final List<Kuulutus> listings = new ArrayList<>();
+    private KuulutusImage first;
+    private KuulutusImage clean;
+    private KuulutusImage second;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("repair", "repair@example.com", "hash"));
+        first = image("Broken", new StoredImage(BOGUS + STORAGE + "a.jpg", BOGUS + STORAGE + "a-medium.jpg", null));
+        clean = image("Fine", new StoredImage(STORAGE + "b.jpg", null, STORAGE + "b-thumb.jpg"));
+        second = image("Also broken", new StoredImage(BOGUS + STORAGE + "c.jpg", null, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        kuulutusImageRepository.deleteAll(kuulutusImageRepository.findAllById(
+            List.of(first.getId(), clean.getId(), second.getId())));
+        kuulutusRepository.deleteAll(listings);
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void repairsMalformedUrlsAndLeavesOthersAlone() throws InterruptedException {
+        run(null);
+
+        assertThat(reload(first).getImageUrl()).isEqualTo(STORAGE + "a.jpg");
+        assertThat(reload(first).getMediumUrl()).isEqualTo(STORAGE + "a-medium.jpg");
+        assertThat(reload(second).getImageUrl()).isEqualTo(STORAGE + "c.jpg");
+        assertThat(reload(clean).getImageUrl()).isEqualTo(STORAGE + "b.jpg");
+        assertThat(reload(clean).getThumbnailUrl()).isEqualTo(STORAGE + "b-thumb.jpg");
+
+        // Only listings whose images changed get a new version
+        assertThat(version(0)).isEqualTo(listings.get(0).getVersion() + 1);
+        assertThat(version(1)).isEqualTo(listings.get(1).getVersion());
+        assertThat(version(2)).isEqualTo(listings.get(2).getVersion() + 1);
+    }
+
+    @Test
+    void resumesAfterTheGivenId() throws InterruptedException {
+        run(first.getId().longValue());
+
+        assertThat(reload(first).getImageUrl()).isEqualTo(BOGUS + STORAGE + "a.jpg");
+        assertThat(reload(second).getImageUrl()).isEqualTo(STORAGE + "c.jpg");
+        assertThat(version(0)).isEqualTo(listings.get(0).getVersion());
+        assertThat((Long) imageUrlRepairJob.status().get("lastId")).isGreaterThanOrEqualTo(second.getId().longValue());
+
+        // A second pass finds nothing left to fix in the resumed range
+        run(first.getId().longValue());
+        assertThat(version(2)).isEqualTo(listings.get(2).getVersion() + 1);
+        assertThat(imageUrlRepairJob.status().get("fixed")).isEqualTo(0L);
+    }
+
+    private KuulutusImage image(String title, StoredImage storedImage) {
+        Kuulutus kuulutus = new Kuulutus();
+        kuulutus.setTitle(title);
+        kuulutus.setPrice(BigDecimal.ONE);
+        kuulutus.setCategory("Repair");
+        kuulutus.setDescription(title);
+        kuulutus.setUser(user);
+        kuulutus = kuulutusRepository.save(kuulutus);
+        listings.add(kuulutus);
+        return kuulutusImageRepository.save(new KuulutusImage(kuulutus, storedImage));
+    }
+
+    private void run(Long afterId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!imageUrlRepairJob.start(afterId)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        while (imageUrlRepairJob.status().get("finishedAt") == null) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        assertThat(imageUrlRepairJob.status().get("state")).isEqualTo(ImageUrlRepairJob.State.COMPLETED);
+    }
+
+    private KuulutusImage reload(KuulutusImage image) {
+        return kuulutusImageRepository.findById(image.getId()).orElseThrow();
+    }
+
+    private Long version(int listing) {
+        return kuulutusRepository.findById(listings.get(listing).getId()).orElseThrow().getVersion();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.Repository;
+
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.KuulutusImage;
+import com.example.demo.models.KuulutusSummary;
+import com.example.demo.models.Liked;
+import com.example.demo.models.ListingSort;
+import com.example.demo.models.StoredImage;
+import com.example.demo.models.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class KuulutusRepositoryTests {
+
+    private static final int LISTINGS = 12;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    @Autowired
+    private LikedRepository likedRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private User seller;
+    private User buyer;
+
+    @BeforeEach
+    void setUp() {
+        seller = new User("seller", "seller@example.com", "hash");
+        buyer = new User("buyer", "buyer@example.com", "hash");
+        entityManager.persist(seller);
+        entityManager.persist(buyer);
+
+        for (int i = 0; i < LISTINGS; i++) {
+            Kuulutus kuulutus = new Kuulutus();
+            kuulutus.setTitle("Listing " + i);
+            kuulutus.setPrice(BigDecimal.valueOf(10 + i));
+            kuulutus.setCategory("Electronics");
+            kuulutus.setDescription("Description " + i);
+            kuulutus.setUser(i % 3 == 0 ? buyer : seller);
+            entityManager.persist(kuulutus);
+            entityManager.persist(new KuulutusImage(kuulutus, new StoredImage("https://example.com/" + i + "-a.jpg", null, null)));
+            entityManager.persist(new KuulutusImage(kuulutus, new StoredImage("https://example.com/" + i + "-b.jpg", null, null)));
+
+            Liked liked = new Liked();
+            liked.setUserId(buyer.getId().longValue());
+            liked.setKuulutusId(kuulutus.getId());
+            entityManager.persist(liked);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllLoadsPageInConstantStatements() {
+        assertConstantStatements(() -> kuulutusRepository.findAll());
+    }
+
+    @Test
+    void findByUserIdLoadsPageInConstantStatements() {
+        assertConstantStatements(() -> kuulutusRepository.findByUserId(seller.getId()));
+    }
+
+    @Test
+    void findByCategoryLoadsPageInConstantStatements() {
+        assertConstantStatements(() -> kuulutusRepository.findByCategory("Electronics"));
+    }
+
+    @Test
+    void likedListingsLoadInConstantStatements() {
+        assertConstantStatements(() -> likedRepository.findKuulutusByUserId(buyer.getId().longValue()));
+    }
+
+    @Test
+    void summaryPageIsNewestFirstWithFirstImageAndSeller() {
+        List<KuulutusSummary> page = kuulutusRepository.findSummaryPage(Long.MAX_VALUE, PageRequest.of(0, 5));
+
+        assertThat(page).hasSize(5);
+        assertThat(page).isSortedAccordingTo((a, b) -> Long.compare(b.getId(), a.getId()));
+        KuulutusSummary newest = page.get(0);
+        assertThat(newest.getTitle()).isEqualTo("Listing " + (LISTINGS - 1));
+        assertThat(newest.getImageUrl()).endsWith((LISTINGS - 1) + "-a.jpg");
+        assertThat(newest.getSellerName()).isEqualTo("seller");
+
+        List<KuulutusSummary> next = kuulutusRepository.findSummaryPage(page.get(4).getId(), PageRequest.of(0, 5));
+        assertThat(next.get(0).getId()).isLessThan(page.get(4).getId());
+    }
+
+    @Test
+    void likedPagesAreKeyedOnLikedAtThenId() {
+        Long buyerId = buyer.getId().longValue();
+        List<Liked> first = likedRepository.findFirstLikedPage(buyerId, PageRequest.of(0, 5));
+        Liked last = first.get(first.size() - 1);
+        List<Liked> next = likedRepository.findLikedPageAfter(buyerId, last.getLikedAt(), last.getId(),
+            PageRequest.of(0, LISTINGS));
+
+        assertThat(first).hasSize(5).allMatch(l -> l.getLikedAt() != null);
+        // All rows share one transaction timestamp here, so id alone separates the pages
+        assertThat(next).hasSize(LISTINGS - 5).allMatch(l -> l.getId() < last.getId());
+    }
+
+    @Test
+    void filterIdsFollowPriceKeyset() {
+        Specification<Kuulutus> filter = Specification.where(KuulutusSpecifications.soldBy(seller.getId()))
+            .and(KuulutusSpecifications.priceAtLeast(BigDecimal.valueOf(12)));
+
+        List<Long> first = kuulutusRepository.findIds(filter, ListingSort.PRICE_DESC.getSort(), 3);
+        List<BigDecimal> prices = new ArrayList<>();
+        for (Long id : first) {
+            prices.add(kuulutusRepository.findById(id).orElseThrow().getPrice());
+        }
+        // Seller owns i % 3 != 0 (prices 11..21), so the three most expensive are 21, 20 and 18
+        assertThat(prices).extracting(BigDecimal::intValue).containsExactly(21, 20, 18);
+
+        Specification<Kuulutus> rest = filter.and(
+            KuulutusSpecifications.after(ListingSort.PRICE_DESC, prices.get(2), first.get(2)));
+        List<Long> next = kuulutusRepository.findIds(rest, ListingSort.PRICE_DESC.getSort(), 10);
+        assertThat(next).hasSize(4).doesNotContainAnyElementsOf(first);
+    }
+
+    private void assertConstantStatements(Supplier<List<Kuulutus>> query) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Kuulutus> kuulutused = query.get();
+        List<String> rendered = new ArrayList<>();
+        for (Kuulutus kuulutus : kuulutused) {
+            rendered.add(kuulutus.getUser().getNimi() + kuulutus.getImageUrls().size());
+        }
+
+        assertThat(rendered).isNotEmpty();
+        // One select for the listings with their sellers, one batched select for all image collections
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
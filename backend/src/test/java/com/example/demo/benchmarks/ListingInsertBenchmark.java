@@ -0,0 +1,101 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.BackendApplication;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.StoredImage;
+import com.example.demo.models.User;
+import com.example.demo.services.KuulutusService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listings created per second through KuulutusService.createKuulutus, each with a few images,
+ * with and without JDBC batching. Uses the test configuration (H2) unless a datasource is
+ * passed as system properties, e.g. -Dspring.datasource.url=jdbc:postgresql://...?reWriteBatchedInserts=true
+ *
+ * Run with: mvn test-compile, then run main() from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ListingInsertBenchmark {
+
+    @Param({"1", "50"})
+    private String jdbcBatchSize;
+
+    @Param({"3"})
+    private int imagesPerListing;
+
+    private ConfigurableApplicationContext context;
+    private KuulutusService kuulutusService;
+    private User seller;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "hibernate.jdbc-batch-size=" + jdbcBatchSize,
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "storage.deletion.interval-ms=3600000",
+                "likes.counter.flush-interval-ms=3600000")
+            .run();
+        kuulutusService = context.getBean(KuulutusService.class);
+        String name = "bench-" + UUID.randomUUID();
+        seller = context.getBean(UserRepository.class).save(new User(name, name + "@example.com", "hash"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Kuulutus createListing() {
+        Kuulutus kuulutus = new Kuulutus();
+        kuulutus.setTitle("Benchmark listing");
+        kuulutus.setPrice(BigDecimal.TEN);
+        kuulutus.setCategory("Other");
+        kuulutus.setDescription("Inserted by ListingInsertBenchmark");
+        kuulutus.setUser(seller);
+
+        List<StoredImage> images = new ArrayList<>(imagesPerListing);
+        for (int i = 0; i < imagesPerListing; i++) {
+            String base = "https://example.com/bench/" + UUID.randomUUID();
+            images.add(new StoredImage(base + ".jpg", base + "-medium.jpg", base + "-thumb.jpg"));
+        }
+        return kuulutusService.createKuulutus(kuulutus, images);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ListingInsertBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign-in throughput per core for each encoder setting SecurityConfig supports; a sign-in
+ * is dominated by one PasswordEncoder.matches call. Multiply by
+ * security.password.hashing.threads to size the hashing pool.
+ *
+ * Run with: mvn test-compile, then run main() from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"bcrypt-10", "bcrypt-12", "pbkdf2-310000", "argon2-19456"})
+    private String encoder;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] setting = encoder.split("-");
+        int cost = Integer.parseInt(setting[1]);
+        switch (setting[0]) {
+            case "bcrypt":
+                passwordEncoder = new BCryptPasswordEncoder(cost);
+                break;
+            case "pbkdf2":
+                Pbkdf2PasswordEncoder pbkdf2 = new Pbkdf2PasswordEncoder("", 16, cost, 256);
+                pbkdf2.setAlgorithm(Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+                passwordEncoder = pbkdf2;
+                break;
+            case "argon2":
+                passwordEncoder = new Argon2PasswordEncoder(16, 32, 1, cost, 2);
+                break;
+            default:
+                throw new IllegalArgumentException(encoder);
+        }
+        hash = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean signIn() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PasswordHashingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.controllers;
+
+import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.Repository.LikedRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.LikeRequest;
+import com.example.demo.models.User;
+import com.example.demo.services.LikeCounterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LikeConcurrencyTests {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    @Autowired
+    private LikedRepository likedRepository;
+
+    @Autowired
+    private LikeCounterService likeCounterService;
+
+    private User user;
+    private Kuulutus kuulutus;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("liker", "liker@example.com", "hash"));
+
+        kuulutus = new Kuulutus();
+        kuulutus.setTitle("Bike");
+        kuulutus.setPrice(BigDecimal.TEN);
+        kuulutus.setCategory("Sports");
+        kuulutus.setDescription("Red bike");
+        kuulutus.setUser(user);
+        kuulutus = kuulutusRepository.save(kuulutus);
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeCounterService.flush();
+        likedRepository.deleteAll(likedRepository.findByUserId(user.getId().longValue()));
+        kuulutusRepository.deleteById(kuulutus.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void concurrentLikesStoreOneRow() throws Exception {
+        List<ResponseEntity<Map>> responses = hammer(HttpMethod.POST, "/api/listings/like");
+
+        assertThat(responses).allMatch(r -> r.getStatusCode() == HttpStatus.OK);
+        assertThat(responses).filteredOn(r -> "Listing liked successfully".equals(r.getBody().get("message")))
+            .hasSize(1);
+        assertThat(likedRepository.findByUserId(user.getId().longValue())).hasSize(1);
+
+        // Counted once, both from the pending delta and after it is flushed
+        assertThat(likeCount()).isEqualTo(1);
+        likeCounterService.flush();
+        assertThat(kuulutusRepository.findLikeCountById(kuulutus.getId())).contains(1L);
+        assertThat(likeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentUnlikesRemoveOnce() throws Exception {
+        hammer(HttpMethod.POST, "/api/listings/like");
+
+        List<ResponseEntity<Map>> responses = hammer(HttpMethod.DELETE, "/api/listings/unlike");
+
+        assertThat(responses).allMatch(r -> r.getStatusCode() == HttpStatus.OK);
+        assertThat(responses).filteredOn(r -> Boolean.TRUE.equals(r.getBody().get("success")))
+            .hasSize(1);
+        assertThat(likedRepository.findByUserId(user.getId().longValue())).isEmpty();
+        assertThat(likeCount()).isZero();
+    }
+
+    @Test
+    void likedCheckFollowsLikeAndUnlike() throws Exception {
+        String check = "/api/listings/liked/" + user.getId() + "/check?ids=" + kuulutus.getId() + ",999999";
+        assertThat(restTemplate.getForObject(check, Map.class).get("likedIds")).asList().isEmpty();
+
+        hammer(HttpMethod.POST, "/api/listings/like");
+        assertThat(restTemplate.getForObject(check, Map.class).get("likedIds")).asList()
+            .containsExactly(kuulutus.getId().intValue());
+
+        hammer(HttpMethod.DELETE, "/api/listings/unlike");
+        assertThat(restTemplate.getForObject(check, Map.class).get("likedIds")).asList().isEmpty();
+    }
+
+    private long likeCount() {
+        Map<?, ?> body = restTemplate.getForObject("/api/listings/" + kuulutus.getId() + "/likes", Map.class);
+        return ((Number) body.get("likeCount")).longValue();
+    }
+
+    // Sends the same like request from every thread at once
+    private List<ResponseEntity<Map>> hammer(HttpMethod method, String path) throws Exception {
+        LikeRequest request = new LikeRequest();
+        request.setUserId(user.getId().longValue());
+        request.setKuulutusId(kuulutus.getId());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ResponseEntity<Map>>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<ResponseEntity<Map>> call = () -> {
+                    start.await();
+                    return restTemplate.exchange(path, method, new HttpEntity<>(request), Map.class);
+                };
+                futures.add(executor.submit(call));
+            }
+            start.countDown();
+
+            List<ResponseEntity<Map>> responses = new ArrayList<>();
+            for (Future<ResponseEntity<Map>> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.controllers;
+
+import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ListingETagTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    private User user;
+    private Kuulutus kuulutus;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("etag", "etag@example.com", "hash"));
+
+        kuulutus = new Kuulutus();
+        kuulutus.setTitle("Chair");
+        kuulutus.setPrice(BigDecimal.ONE);
+        kuulutus.setCategory("Furniture");
+        kuulutus.setDescription("Wooden chair");
+        kuulutus.setUser(user);
+        kuulutus = kuulutusRepository.save(kuulutus);
+    }
+
+    @AfterEach
+    void tearDown() {
+        kuulutusRepository.deleteById(kuulutus.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void detailIsNotModifiedUntilTheListingChanges() {
+        String url = "/api/listings/" + kuulutus.getId();
+        ResponseEntity<String> first = get(url, null);
+        String eTag = first.getHeaders().getETag();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(eTag).startsWith("\"");
+
+        ResponseEntity<String> unchanged = get(url, eTag);
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchanged.getBody()).isNull();
+
+        restTemplate.exchange(url + "?userId=" + user.getId() + "&title=Armchair", HttpMethod.PUT, null, String.class);
+
+        ResponseEntity<String> changed = get(url, eTag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+        assertThat(changed.getBody()).contains("Armchair");
+    }
+
+    @Test
+    void feedPagesShareAWeakETagUntilTheCategoryChanges() {
+        String eTag = get("/api/listings/category/Furniture", null).getHeaders().getETag();
+        String books = get("/api/listings/category/Books", null).getHeaders().getETag();
+        assertThat(eTag).startsWith("W/\"");
+
+        assertThat(get("/api/listings/category/Furniture?size=5", eTag).getStatusCode())
+            .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        restTemplate.exchange("/api/listings/" + kuulutus.getId() + "?userId=" + user.getId() + "&title=Stool",
+            HttpMethod.PUT, null, String.class);
+
+        ResponseEntity<String> changed = get("/api/listings/category/Furniture", eTag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getBody()).contains("Stool");
+        assertThat(get("/api/listings/category/Books", books).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void updateWithStaleIfMatchConflicts() {
+        String url = "/api/listings/" + kuulutus.getId() + "?userId=" + user.getId();
+        String eTag = get("/api/listings/" + kuulutus.getId(), null).getHeaders().getETag();
+
+        ResponseEntity<String> phone = put(url + "&title=Phone", eTag);
+        assertThat(phone.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(phone.getHeaders().getETag()).isNotEqualTo(eTag);
+
+        ResponseEntity<String> tablet = put(url + "&title=Tablet", eTag);
+        assertThat(tablet.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(kuulutusRepository.findById(kuulutus.getId()).orElseThrow().getTitle()).isEqualTo("Phone");
+
+        assertThat(put(url + "&title=Tablet", phone.getHeaders().getETag()).getStatusCode())
+            .isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> put(String url, String ifMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(ifMatch);
+        return restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<String> get(String url, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.controllers;
+
+import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.User;
+import com.example.demo.services.KuulutusExportService;
+import com.example.demo.services.LikeCounterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// A short default async timeout, which the export stream must not be bound by
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.mvc.async.request-timeout=100ms")
+class ListingExportTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    @Autowired
+    private LikeCounterService likeCounterService;
+
+    @SpyBean
+    private KuulutusExportService kuulutusExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Kuulutus kuulutus;
+    private Instant cursor;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("exporter", "exporter@example.com", "hash"));
+
+        kuulutus = new Kuulutus();
+        kuulutus.setTitle("Lamp");
+        kuulutus.setPrice(BigDecimal.TEN);
+        kuulutus.setCategory("Lighting");
+        kuulutus.setDescription("Desk lamp");
+        kuulutus.setUser(user);
+        kuulutus = kuulutusRepository.save(kuulutus);
+
+        // The largest updatedAt an incremental consumer has already seen
+        cursor = Instant.now();
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeCounterService.flush();
+        kuulutusRepository.deleteById(kuulutus.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void lateCommitStampedBeforeTheCursorIsSentAgain() {
+        // A transaction that flushed a minute before the consumer's last export but committed after it
+        setUpdatedAt(cursor.minus(Duration.ofMinutes(1)));
+
+        assertThat(export(cursor)).contains("\"Lamp\"");
+    }
+
+    @Test
+    void changesOlderThanTheOverlapAreNotSentAgain() {
+        setUpdatedAt(cursor.minus(Duration.ofHours(1)));
+
+        assertThat(export(cursor)).doesNotContain("\"Lamp\"");
+    }
+
+    @Test
+    void likeCountFlushesReachTheIncrementalExport() {
+        setUpdatedAt(cursor.minus(Duration.ofHours(1)));
+
+        likeCounterService.increment(kuulutus.getId());
+        likeCounterService.flush();
+
+        assertThat(export(cursor)).contains("\"Lamp\"");
+    }
+
+    @Test
+    void exportOutlastsTheDefaultAsyncTimeout() {
+        doAnswer(invocation -> {
+            Thread.sleep(500);
+            return invocation.callRealMethod();
+        }).when(kuulutusExportService).exportNdjson(any(), any());
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/listings/export", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).hasToString("application/x-ndjson");
+        assertThat(response.getBody()).contains("\"Lamp\"");
+    }
+
+    private void setUpdatedAt(Instant updatedAt) {
+        jdbcTemplate.update("UPDATE kuulutus SET updated_at = ? WHERE id = ?", Timestamp.from(updatedAt), kuulutus.getId());
+    }
+
+    private String export(Instant updatedSince) {
+        String body = restTemplate.getForObject("/api/listings/export?updatedSince={since}", String.class, updatedSince);
+        return body == null ? "" : body;
+    }
+}
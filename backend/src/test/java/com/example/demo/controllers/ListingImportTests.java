@@ -0,0 +1,124 @@
+package com.example.demo.controllers;
+
+import com.example.demo.Repository.KuulutusImageRepository;
+import com.example.demo.Repository.KuulutusRepository;
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.models.Kuulutus;
+import com.example.demo.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ListingImportTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private KuulutusRepository kuulutusRepository;
+
+    @Autowired
+    private KuulutusImageRepository kuulutusImageRepository;
+
+    // storage.backend=local in tests; imported images must be files it serves
+    private static final String FILES = "http://localhost:8080/api/files/";
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("dealer", "dealer@example.com", "hash"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Kuulutus kuulutus : kuulutusRepository.findByUserId(user.getId())) {
+            kuulutusImageRepository.deleteAll(kuulutusImageRepository.findByKuulutusId(kuulutus.getId()));
+            kuulutusRepository.deleteById(kuulutus.getId());
+        }
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void csvImportSkipsInvalidRowsAndReportsThem() {
+        String csv = "title,price,category,description,imageUrls\n"
+            + "Sofa,120.00,Furniture,\"Grey, three seats\"," + FILES + "a.jpg|" + FILES + "b.jpg\n"
+            + ",5,Books,No title,\n"
+            + "Lamp,abc,Furniture,,\n"
+            + "\"Desk\nwith drawers\",80,Furniture,,\n";
+
+        Map<String, Object> result = importBody(csv, "text/csv");
+
+        assertThat(result.get("received")).isEqualTo(4);
+        assertThat(result.get("imported")).isEqualTo(2);
+        assertThat(result.get("failed")).isEqualTo(2);
+        assertThat((List<Map<String, Object>>) result.get("errors"))
+            .extracting(error -> error.get("line"))
+            .containsExactly(3, 4);
+
+        List<Kuulutus> imported = kuulutusRepository.findByUserId(user.getId());
+        assertThat(imported).extracting(Kuulutus::getTitle).containsExactlyInAnyOrder("Sofa", "Desk\nwith drawers");
+        Kuulutus sofa = imported.stream().filter(k -> k.getTitle().equals("Sofa")).findFirst().orElseThrow();
+        assertThat(kuulutusImageRepository.findByKuulutusId(sofa.getId())).hasSize(2);
+    }
+
+    @Test
+    void ndjsonImportReportsMalformedLines() {
+        String ndjson = "{\"title\":\"Bike\",\"price\":50,\"category\":\"Sports\",\"imageUrls\":[\"" + FILES + "bike.jpg\"]}\n"
+            + "{\"title\":\"Ball\",\"price\":-1,\"category\":\"Sports\"}\n"
+            + "{not json\n"
+            // Deleting this listing would delete whatever file the URL names, so foreign URLs are refused
+            + "{\"title\":\"Kite\",\"price\":5,\"category\":\"Sports\",\"imageUrls\":[\"https://example.com/other.jpg\"]}\n";
+
+        Map<String, Object> result = importBody(ndjson, "application/x-ndjson");
+
+        assertThat(result.get("imported")).isEqualTo(1);
+        assertThat(result.get("failed")).isEqualTo(3);
+        assertThat(kuulutusRepository.findByUserId(user.getId())).extracting(Kuulutus::getTitle).containsExactly("Bike");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ndjsonNullLineIsOneRowError() {
+        String ndjson = "null\n"
+            + "{\"title\":\"Tent\",\"price\":40,\"category\":\"Sports\"}\n";
+
+        Map<String, Object> result = importBody(ndjson, "application/x-ndjson");
+
+        assertThat(result.get("imported")).isEqualTo(1);
+        assertThat(result.get("failed")).isEqualTo(1);
+        assertThat((List<Map<String, Object>>) result.get("errors"))
+            .extracting(error -> error.get("line"))
+            .containsExactly(1);
+        assertThat(kuulutusRepository.findByUserId(user.getId())).extracting(Kuulutus::getTitle).containsExactly("Tent");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> importBody(String body, String contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        ResponseEntity<Map> response = restTemplate.postForEntity(
+            "/api/listings/import?user_id=" + user.getId(), new HttpEntity<>(body, headers), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (Map<String, Object>) response.getBody().get("result");
+    }
+}
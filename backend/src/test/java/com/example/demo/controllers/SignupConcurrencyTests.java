@@ -0,0 +1,91 @@
+package com.example.demo.controllers;
+
+import com.example.demo.Repository.UserRepository;
+import com.example.demo.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SignupConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(userRepository.findAll().stream()
+            .filter(u -> u.getEmail().endsWith("@signup.example.com"))
+            .toList());
+    }
+
+    @Test
+    void concurrentSignupsWithSameEmailCreateOneUser() throws Exception {
+        List<ResponseEntity<Map>> responses = signUpConcurrently(
+            i -> Map.of("username", "racer" + i, "email", "race@signup.example.com", "password", "secret"));
+
+        assertThat(responses).filteredOn(r -> r.getStatusCode() == HttpStatus.OK).hasSize(1);
+        assertThat(responses).filteredOn(r -> r.getStatusCode() != HttpStatus.OK)
+            .allMatch(r -> r.getStatusCode() == HttpStatus.BAD_REQUEST)
+            .allMatch(r -> "Email already exists".equals(r.getBody().get("message")));
+        assertThat(userRepository.findByEmail("race@signup.example.com")).isNotNull();
+    }
+
+    @Test
+    void concurrentSignupsWithSameNameCreateOneUser() throws Exception {
+        List<ResponseEntity<Map>> responses = signUpConcurrently(
+            i -> Map.of("username", "samename", "email", "racer" + i + "@signup.example.com", "password", "secret"));
+
+        assertThat(responses).filteredOn(r -> r.getStatusCode() == HttpStatus.OK).hasSize(1);
+        assertThat(responses).filteredOn(r -> r.getStatusCode() != HttpStatus.OK)
+            .allMatch(r -> "Username already exists".equals(r.getBody().get("message")));
+        User user = userRepository.findByNimi("samename");
+        assertThat(user).isNotNull();
+    }
+
+    private List<ResponseEntity<Map>> signUpConcurrently(IntFunction<Map<String, String>> request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ResponseEntity<Map>>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Map<String, String> body = request.apply(i);
+                Callable<ResponseEntity<Map>> call = () -> {
+                    start.await();
+                    return restTemplate.postForEntity("/api/auth/signup", body, Map.class);
+                };
+                futures.add(executor.submit(call));
+            }
+            start.countDown();
+
+            List<ResponseEntity<Map>> responses = new ArrayList<>();
+            for (Future<ResponseEntity<Map>> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,13 +1,13 @@
 import React, { useState } from 'react';
-import { View, Image, ActivityIndicator, StyleSheet, Text } from 'react-native'; // Ensure Text is importedimport { getApiUrl } from '../utils/apiUtils';
-import { getApiUrl } from '../utils/apiUtils';
+import { View, Image, ActivityIndicator, StyleSheet, Text } from 'react-native'; // Ensure Text is importedimport { bearerHeader, getApiUrl } from '../utils/apiUtils';
+import { bearerHeader, getApiUrl } from '../utils/apiUtils';
 
 interface ListingImageProps {
   imageUrls: string[];
-  sessionId: string | null;
+  token: string | null;
 }
 
-const ListingImage: React.FC<ListingImageProps> = ({ imageUrls, sessionId }) => {
+const ListingImage: React.FC<ListingImageProps> = ({ imageUrls, token }) => {
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
 
@@ -35,7 +35,7 @@ const ListingImage: React.FC<ListingImageProps> = ({ imageUrls, sessionId }) =>
               uri: fixedUrl,
               headers: {
                 'Accept': 'image/*',
-                ...(sessionId ? { 'Cookie': `JSESSIONID=${sessionId}` } : {})
+                ...bearerHeader(token)
               }
             }}
             style={styles.image}
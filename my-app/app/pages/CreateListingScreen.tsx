@@ -13,7 +13,7 @@ import { useNavigation } from '@react-navigation/native';
 import { Ionicons } from '@expo/vector-icons';
 import * as ImagePicker from 'expo-image-picker';
 import AsyncStorage from '@react-native-async-storage/async-storage';
-import { getApiUrl } from '../utils/apiUtils';
+import { getApiUrl, getAuthHeaders } from '../utils/apiUtils';
 
 
 const categories = [
@@ -71,16 +71,13 @@ export default function CreateListingScreen() {
         return;
       }
 
-      const password = await AsyncStorage.getItem('userPassword');
-      const sessionId = await AsyncStorage.getItem('sessionId');
-      const authHeader = `Basic ${btoa(`${userEmail}:${password}`)}`;
+      const authHeaders = await getAuthHeaders();
 
       // Get user_id first
       const userResponse = await fetch(`${getApiUrl()}/api/users/profile/${encodeURIComponent(userEmail)}`, {
         headers: {
-          'Authorization': authHeader,
           'Accept': 'application/json',
-          ...(sessionId ? { 'Cookie': `JSESSIONID=${sessionId}` } : {})
+          ...authHeaders
         }
       });
 
@@ -118,9 +115,8 @@ export default function CreateListingScreen() {
       const response = await fetch(`${getApiUrl()}/api/listings/create`, {
         method: 'POST',
         headers: {
-          'Authorization': authHeader,
           'Accept': 'application/json',
-          ...(sessionId ? { 'Cookie': `JSESSIONID=${sessionId}` } : {})
+          ...authHeaders
         },
         body: formData
       });
@@ -5,7 +5,7 @@ import { RootStackParamList } from '../../hooks/types';
 import { Ionicons } from '@expo/vector-icons';
 import { StackNavigationProp } from '@react-navigation/stack';
 import AsyncStorage from '@react-native-async-storage/async-storage';
-import { getApiUrl } from '../utils/apiUtils';
+import { getApiUrl, getAuthHeaders } from '../utils/apiUtils';
 
 type ListingDetailRouteProp = RouteProp<RootStackParamList, 'ListingDetail'>;
 type ListingDetailNavigationProp = StackNavigationProp<RootStackParamList>;
@@ -29,14 +29,8 @@ const ListingDetailScreen = () => {
   const [listing, setListing] = useState<Listing | null>(null);
   const [loading, setLoading] = useState(true);
   const [isBookmarked, setIsBookmarked] = useState(false);
-  const [sessionId, setSessionId] = useState<string | null>(null);
 
   useEffect(() => {
-    const getSessionId = async () => {
-      const storedSessionId = await AsyncStorage.getItem('sessionId');
-      setSessionId(storedSessionId);
-    };
-    getSessionId();
     fetchListingDetails();
     checkIfBookmarked();
   }, [id]);
@@ -44,21 +38,13 @@ const ListingDetailScreen = () => {
   const fetchListingDetails = async () => {
     try {
       setLoading(true);
-      const email = await AsyncStorage.getItem('userEmail');
-      const password = await AsyncStorage.getItem('userPassword');
-      const storedSessionId = await AsyncStorage.getItem('sessionId');
-
       const headers = {
         'Accept': 'application/json',
-        ...(email && password ? { 
-          'Authorization': `Basic ${btoa(`${email}:${password}`)}` 
-        } : {}),
-        ...(storedSessionId ? { 'Cookie': `JSESSIONID=${storedSessionId}` } : {})
+        ...(await getAuthHeaders())
       };
 
       const response = await fetch(`${getApiUrl()}/api/listings/${id}`, {
-        headers: headers,
-        credentials: 'include'
+        headers: headers
       });
 
       if (response.ok) {
@@ -77,7 +63,9 @@ const ListingDetailScreen = () => {
   const checkIfBookmarked = async () => {
     const userId = await AsyncStorage.getItem('userId');
     if (userId) {
-      const response = await fetch(`${getApiUrl()}/api/listings/liked/${userId}`);
+      const response = await fetch(`${getApiUrl()}/api/listings/liked/${userId}`, {
+        headers: await getAuthHeaders(),
+      });
       if (response.ok) {
         const likedListings = await response.json();
         const isLiked = likedListings.some((liked: Listing) => liked.id === parseInt(id));
@@ -93,6 +81,7 @@ const ListingDetailScreen = () => {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
+          ...(await getAuthHeaders()),
         },
         body: JSON.stringify({
           userId: parseInt(userId),
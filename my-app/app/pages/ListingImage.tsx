@@ -1,13 +1,13 @@
 import React, { useState } from 'react';
 import { View, Image, ActivityIndicator, StyleSheet, Text } from 'react-native';
-import { getApiUrl } from '../utils/apiUtils';
+import { bearerHeader, getApiUrl } from '../utils/apiUtils';
 
 interface ListingImageProps {
   imageUrl: string | null;
-  sessionId: string | null;
+  token: string | null;
 }
 
-const ListingImage: React.FC<ListingImageProps> = ({ imageUrl, sessionId }) => {
+const ListingImage: React.FC<ListingImageProps> = ({ imageUrl, token }) => {
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
 
@@ -32,7 +32,7 @@ const ListingImage: React.FC<ListingImageProps> = ({ imageUrl, sessionId }) => {
           uri: fixedUrl,
           headers: {
             'Accept': 'image/*',
-            ...(sessionId ? { 'Cookie': `JSESSIONID=${sessionId}` } : {})
+            ...bearerHeader(token)
           }
         }}
         style={styles.image}
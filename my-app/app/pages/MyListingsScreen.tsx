@@ -1,6 +1,6 @@
 import React, { useEffect, useState } from 'react';
 import { View, Text, StyleSheet, FlatList, TouchableOpacity, Platform, ActivityIndicator } from 'react-native';
-import { getApiUrl } from '../utils/apiUtils';
+import { bearerHeader, getApiUrl } from '../utils/apiUtils';
 import { Ionicons } from '@expo/vector-icons';
 import { useNavigation } from '@react-navigation/native';
 import AsyncStorage from '@react-native-async-storage/async-storage';
@@ -17,6 +17,7 @@ const MyListingsScreen = () => {
   const [listings, setListings] = useState<Listing[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const [token, setToken] = useState<string | null>(null);
 
   const navigation = useNavigation();
 
@@ -24,7 +25,7 @@ const MyListingsScreen = () => {
     const fetchListings = async () => {
       try {
         const token = await AsyncStorage.getItem('token');
-        const sessionId = await AsyncStorage.getItem('sessionId');
+        setToken(token);
         const userEmail = await AsyncStorage.getItem('userEmail');
 
         if (!userEmail) {
@@ -36,8 +37,7 @@ const MyListingsScreen = () => {
           method: 'GET',
           headers: {
             'Content-Type': 'application/json',
-            'Authorization': `Bearer ${token}`,
-            ...(sessionId ? { 'Cookie': `JSESSIONID=${sessionId}` } : {})
+            ...bearerHeader(token)
           }
         });
 
@@ -70,7 +70,7 @@ const MyListingsScreen = () => {
         method: 'DELETE',
         headers: {
           'Content-Type': 'application/json',
-          'Authorization': `Bearer ${token}`,
+          ...bearerHeader(token),
         },
       });
 
@@ -87,7 +87,7 @@ const MyListingsScreen = () => {
 
   const renderItem = ({ item }: { item: any }) => (
     <View style={styles.listingItem}>
-      <ListingImage imageUrls={item.imageUrls} sessionId={null} />
+      <ListingImage imageUrls={item.imageUrls} token={token} />
       
       <View style={styles.listingDetails}>
         <Text style={styles.listingTitle}>{item.title}</Text>
@@ -5,7 +5,7 @@ import { Ionicons } from '@expo/vector-icons';
 import { StackNavigationProp } from '@react-navigation/stack';
 import { RootStackParamList } from '../../hooks/types';
 import AsyncStorage from '@react-native-async-storage/async-storage';
-import { getApiUrl } from '../utils/apiUtils';
+import { getApiUrl, getAuthHeaders } from '../utils/apiUtils';
 
 
 type ProfileScreenNavigationProp = StackNavigationProp<RootStackParamList>;
@@ -30,10 +30,8 @@ export default function ProfileScreen() {
 
   const fetchUserProfile = async () => {
     try {
-      const sessionId = await AsyncStorage.getItem('sessionId');
       const userEmail = await AsyncStorage.getItem('userEmail');
 
-      console.log('Session ID from AsyncStorage:', sessionId);
       console.log('User Email from AsyncStorage:', userEmail);
 
       if (!userEmail) {
@@ -48,7 +46,7 @@ export default function ProfileScreen() {
         headers: {
           'Content-Type': 'application/json',
           'Accept': 'application/json',
-          ...(sessionId ? { 'Cookie': `JSESSIONID=${sessionId}` } : {})
+          ...(await getAuthHeaders())
         }
       });
 
@@ -3,7 +3,7 @@ import { View, Text, TouchableOpacity, StyleSheet, ScrollView } from 'react-nati
 import { Ionicons } from '@expo/vector-icons';
 import { useNavigation } from '@react-navigation/native';
 import AsyncStorage from '@react-native-async-storage/async-storage';
-import { getApiUrl } from '../utils/apiUtils';
+import { getApiUrl, getAuthHeaders } from '../utils/apiUtils';
 import { StackNavigationProp } from '@react-navigation/stack';
 import { RootStackParamList } from '../../hooks/types';
 
@@ -35,16 +35,12 @@ const SettingsScreen = () => {
               return;
             }
       
-            const password = await AsyncStorage.getItem('userPassword');
-            const sessionId = await AsyncStorage.getItem('sessionId');
-      
             const response = await fetch(`${getApiUrl()}/api/users/profile/${encodeURIComponent(userEmail)}`, {
               method: 'GET',
               headers: {
                 'Content-Type': 'application/json',
                 'Accept': 'application/json',
-                'Authorization': `Basic ${btoa(`${userEmail}:${password}`)}`,
-                ...(sessionId ? { 'Cookie': `JSESSIONID=${sessionId}` } : {})
+                ...(await getAuthHeaders())
               }
             });
       
@@ -25,7 +25,6 @@ export default function SignInScreen() {
           'Content-Type': 'application/json',
           'Accept': 'application/json',
         },
-        credentials: 'include',
         body: JSON.stringify({
           email,
           password,
@@ -37,22 +36,10 @@ export default function SignInScreen() {
       console.log('Response headers:', response.headers);
 
       if (response.ok) {
-        const setCookieHeader = response.headers.get('set-cookie');
-        console.log('Set-Cookie header:', setCookieHeader);
-        
-        if (setCookieHeader) {
-          const sessionMatch = setCookieHeader.match(/JSESSIONID=([^;]+)/);
-          console.log('Session match:', sessionMatch);
-          
-          if (sessionMatch && sessionMatch[1]) {
-            const sessionId = sessionMatch[1];
-            console.log('Saving session ID:', sessionId);
-            await AsyncStorage.setItem('sessionId', sessionId);
-          }
-        }
-
+        // The backend keeps no session; the token is sent as a Bearer header from now on
         await AsyncStorage.setItem('userEmail', email);
-        await AsyncStorage.setItem('userPassword', password);
+        await AsyncStorage.removeItem('sessionId');
+        await AsyncStorage.removeItem('userPassword');
         
         // Log token
         const token = data.token || data.accessToken || data.jwt;
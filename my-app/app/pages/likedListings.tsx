@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { View, Text, StyleSheet, FlatList, ActivityIndicator, Image, TouchableOpacity } from 'react-native';
 import AsyncStorage from '@react-native-async-storage/async-storage';
-import { getApiUrl } from './../utils/apiUtils';
+import { getApiUrl, getAuthHeaders } from './../utils/apiUtils';
 import { Listing } from '../../hooks/Listing';
 import { Ionicons } from '@expo/vector-icons';
 
@@ -14,7 +14,9 @@ const LikedListings = () => {
             const userId = await AsyncStorage.getItem('userId');
             if (userId) {
                 try {
-                    const response = await fetch(`${getApiUrl()}/api/listings/liked/${userId}`);
+                    const response = await fetch(`${getApiUrl()}/api/listings/liked/${userId}`, {
+                        headers: await getAuthHeaders(),
+                    });
                     if (response.ok) {
                         const data = await response.json();
                         setLikedListings(data);
@@ -40,6 +42,7 @@ const LikedListings = () => {
                     method: 'DELETE',
                     headers: {
                         'Content-Type': 'application/json',
+                        ...(await getAuthHeaders()),
                     },
                     body: JSON.stringify({
                         userId: parseInt(userId),
@@ -7,7 +7,7 @@ import { RootStackParamList } from '../../../hooks/types';
 import { useNavigation } from '@react-navigation/native';
 import { StackNavigationProp } from '@react-navigation/stack';
 import AsyncStorage from '@react-native-async-storage/async-storage';
-import { getApiUrl } from '../../utils/apiUtils';
+import { bearerHeader, getApiUrl, getAuthHeaders } from '../../utils/apiUtils';
 import LikedListings from '../likedListings';
 const Tab = createBottomTabNavigator();
 
@@ -33,12 +33,13 @@ interface Listing {
   title: string;
   price: number;
   imageUrl: string;
+  thumbnailUrl?: string;
   imageUrls: string[];
   category: string;
   description?: string;
 }
 
-const ListingImage = ({ imageUrl, sessionId }: { imageUrl: string | null, sessionId: string | null }) => {
+const ListingImage = ({ imageUrl, token }: { imageUrl: string | null, token: string | null }) => {
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   
@@ -63,7 +64,7 @@ const ListingImage = ({ imageUrl, sessionId }: { imageUrl: string | null, sessio
           uri: fixedUrl,
           headers: {
             'Accept': 'image/*',
-            ...(sessionId ? { 'Cookie': `JSESSIONID=${sessionId}` } : {})
+            ...bearerHeader(token)
           }
         }}
         style={styles.image}
@@ -94,7 +95,6 @@ const ListingsTab = () => {
   const [listings, setListings] = useState<Listing[]>([]);
   const [selectedCategory, setSelectedCategory] = useState('All');
   const [token, setToken] = useState<string | null>(null);
-  const [sessionId, setSessionId] = useState<string | null>(null);
   const [searchQuery, setSearchQuery] = useState<string>('');
   const navigation = useNavigation<StackNavigationProp<RootStackParamList>>();
   const pollingInterval = useRef<NodeJS.Timeout>();
@@ -102,43 +102,103 @@ const ListingsTab = () => {
   useEffect(() => {
     const getAuthData = async () => {
       const storedToken = await AsyncStorage.getItem('token');
-      const storedSessionId = await AsyncStorage.getItem('sessionId');
       setToken(storedToken);
-      setSessionId(storedSessionId);
     };
     getAuthData();
   }, []);
 
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  // Read by the polling interval and by responses that arrive after the category changed
+  const categoryRef = useRef(selectedCategory);
+  const listingsRef = useRef<Listing[]>([]);
+  const nextCursorRef = useRef<string | null>(null);
+  const loadingCursor = useRef<string | null>(null);
+
+  const showListings = (items: Listing[], cursor: string | null) => {
+    listingsRef.current = items;
+    nextCursorRef.current = cursor;
+    setListings(items);
+    setNextCursor(cursor);
+  };
+
+  const fetchPage = async (category: string, cursor?: string | null) => {
+    const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : '';
+    const url = `${getApiUrl()}/api/listings/category/${category}${query}`;
+    const response = await fetch(url, {
+      method: 'GET',
+      headers: {
+        'Accept': 'application/json',
+        'Content-Type': 'application/json',
+        ...(await getAuthHeaders()),
+      },
+    });
+
+    if (!response.ok) {
+      throw new Error(`HTTP error! status: ${response.status}`);
+    }
+
+    const data = await response.json();
+    return { items: data.items as Listing[], nextCursor: (data.nextCursor ?? null) as string | null };
+  };
+
   const fetchListings = async () => {
+    const category = selectedCategory;
     try {
-      const url = `${getApiUrl()}/api/listings/category/${selectedCategory}`;
-      console.log('Fetching from URL:', url);
-      const response = await fetch(url, {
-        method: 'GET',
-        credentials: 'include',
-        headers: {
-          'Accept': 'application/json',
-          'Content-Type': 'application/json',
-        },
-      });
+      const page = await fetchPage(category);
+      if (categoryRef.current !== category) return;
+      showListings(page.items, page.nextCursor);
+    } catch (error) {
+      console.log('Error fetching listings:', error);
+    }
+  };
 
-      if (!response.ok) {
-        throw new Error(`HTTP error! status: ${response.status}`);
-      }
+  // The next page, when the user scrolls near the end of what is loaded
+  const loadMoreListings = async () => {
+    const category = categoryRef.current;
+    const cursor = nextCursorRef.current;
+    if (!cursor || loadingCursor.current === cursor) return;
+    loadingCursor.current = cursor;
+    try {
+      const page = await fetchPage(category, cursor);
+      if (categoryRef.current !== category || nextCursorRef.current !== cursor) return;
+      const loaded = new Set(listingsRef.current.map(listing => listing.id));
+      showListings([...listingsRef.current, ...page.items.filter(listing => !loaded.has(listing.id))], page.nextCursor);
+    } catch (error) {
+      console.log('Error loading more listings:', error);
+    } finally {
+      loadingCursor.current = null;
+    }
+  };
 
-      const data = await response.json();
-      console.log('Fetched listings data: ', data);
-      setListings(data);
+  // Polling refetches only the first page (newest first) and swaps it in for the head of
+  // the list, keeping the pages loaded further down and their cursor
+  const refreshHead = async () => {
+    const category = categoryRef.current;
+    try {
+      const page = await fetchPage(category);
+      if (categoryRef.current !== category) return;
+      const head = page.items;
+      const current = listingsRef.current;
+      // Without overlap more than a page is new, and the loaded pages no longer follow on
+      if (head.length === 0 || !page.nextCursor || current.length === 0
+          || current[0].id < head[head.length - 1].id) {
+        showListings(head, page.nextCursor);
+        return;
+      }
+      const tail = current.filter(listing => listing.id < head[head.length - 1].id);
+      showListings([...head, ...tail], tail.length > 0 ? nextCursorRef.current : page.nextCursor);
     } catch (error) {
-      console.log('Error fetching listings:', error);
+      console.log('Error refreshing listings:', error);
     }
   };
 
   useEffect(() => {
+    categoryRef.current = selectedCategory;
+    showListings([], null);
     fetchListings();
 
     // Set up polling every 5 seconds
-    pollingInterval.current = setInterval(fetchListings, 5000);
+    pollingInterval.current = setInterval(refreshHead, 5000);
 
     // Cleanup interval on unmount
     return () => {
@@ -153,14 +213,14 @@ const ListingsTab = () => {
   );
 
   const renderItem = ({ item }: { item: Listing }) => {
-    const imageUrl = item.imageUrls && item.imageUrls.length > 0 ? item.imageUrls[0] : null;
+    const imageUrl = item.thumbnailUrl || item.imageUrl || null;
 
     return (
       <TouchableOpacity 
           style={styles.listingCard}
           onPress={() => navigation.navigate('ListingDetail', { id: item.id.toString() })}
       >
-          <ListingImage imageUrl={imageUrl} sessionId={sessionId} />
+          <ListingImage imageUrl={imageUrl} token={token} />
           <View style={styles.listingInfo}>
               <Text style={styles.listingTitle} numberOfLines={1}>{item.title}</Text>
               <Text style={styles.listingPrice}>${item.price.toFixed(2)}</Text>
@@ -196,10 +256,7 @@ const ListingsTab = () => {
                 styles.categoryButton,
                 selectedCategory === category.id && styles.categoryButtonActive
               ]}
-              onPress={() => {
-                setSelectedCategory(category.id);
-                fetchListings();
-              }}
+              onPress={() => setSelectedCategory(category.id)}
             >
               <View style={[
                 styles.categoryIcon,
@@ -230,6 +287,9 @@ const ListingsTab = () => {
         contentContainerStyle={styles.listContainer}
         columnWrapperStyle={styles.row}
         showsVerticalScrollIndicator={false}
+        onEndReached={loadMoreListings}
+        onEndReachedThreshold={0.5}
+        ListFooterComponent={nextCursor ? <ActivityIndicator style={styles.footer} color="#4B5FBD" /> : null}
       />
     </View>
   );
@@ -408,6 +468,9 @@ const styles = StyleSheet.create({
     fontWeight: '500',
     color: '#000000',
   },
+  footer: {
+    marginVertical: 16,
+  },
   text: {
     fontSize: 25,
     textAlign: 'center',
@@ -1,5 +1,6 @@
 // Import necessary libraries
 import { Platform } from 'react-native';
+import AsyncStorage from '@react-native-async-storage/async-storage';
 
 // Function to get the API URL
 export const getApiUrl = () => {
@@ -12,4 +13,12 @@ export const getApiUrl = () => {
   
   // For web platform, use localhost
   return 'http://127.0.0.1:8080';
-};  
\ No newline at end of file
+};
+
+// The backend is stateless: every authenticated request carries the JWT from sign-in
+export const bearerHeader = (token: string | null): Record<string, string> =>
+  token ? { 'Authorization': `Bearer ${token}` } : {};
+
+// Authorization header for the stored token, or no header when signed out
+export const getAuthHeaders = async (): Promise<Record<string, string>> =>
+  bearerHeader(await AsyncStorage.getItem('token'));